@@ -0,0 +1,89 @@
+package com.zhubin.commonutils.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 布隆过滤器注册表：按名称管理布隆过滤器，后台定时将redis位图同步到本地
+ */
+@Slf4j
+public class BloomFilterRegistry implements InitializingBean, DisposableBean {
+
+    private final Map<String, RedisBloomFilter> filters = new ConcurrentHashMap<>();
+
+    /**
+     * 同步间隔，单位为毫秒
+     */
+    private final long syncInterval;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "bloom-filter-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BloomFilterRegistry(Collection<RedisBloomFilter> filters, long syncInterval) {
+
+        if (syncInterval <= 0L) {
+            throw new IllegalArgumentException("The syncInterval of bloom filter must be positive");
+        }
+        filters.forEach(filter -> this.filters.put(filter.getName(), filter));
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * @param name 名称
+     * @return 布隆过滤器
+     */
+    public RedisBloomFilter getFilter(String name) {
+
+        RedisBloomFilter filter = filters.get(name);
+        if (filter == null) {
+            throw new IllegalArgumentException(String.format("Bloom filter is undefined, name = %s", name));
+        }
+        return filter;
+    }
+
+    /**
+     * @return 全部布隆过滤器
+     */
+    public Collection<RedisBloomFilter> getFilters() {
+
+        return Collections.unmodifiableCollection(filters.values());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        scheduler.scheduleWithFixedDelay(this::syncAll, 0L, syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+
+        scheduler.shutdownNow();
+    }
+
+    private void syncAll() {
+
+        for (RedisBloomFilter filter : filters.values()) {
+            try {
+                filter.sync();
+            } catch (Exception e) {
+                log.error(String.format("Sync bloom filter error, name = %s", filter.getName()), e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.zhubin.commonutils.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 开启防击穿时的缓存值包装：记录逻辑过期时间与加载耗时。
+ * redis中的实际存活时间比逻辑过期时间更长，逻辑过期后仍可返回旧值，同时后台刷新
+ */
+@Getter
+@AllArgsConstructor
+public class CacheEnvelope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存值(已转换为存储值)
+     */
+    private final Object value;
+
+    /**
+     * 逻辑过期时间戳，单位为毫秒
+     */
+    private final long expireAt;
+
+    /**
+     * 加载耗时，单位为毫秒，用于计算提前刷新的概率
+     */
+    private final long loadMillis;
+
+    /**
+     * @param now 当前时间
+     * @return 是否已逻辑过期
+     */
+    public boolean isExpired(long now) {
+
+        return now >= expireAt;
+    }
+
+    /**
+     * 概率提前刷新：越接近过期、加载越慢，提前刷新的概率越高
+     * @param now 当前时间
+     * @param beta 提前系数，大于1更积极，0表示关闭
+     * @param random (0, 1]区间的随机数
+     * @return 是否需要提前刷新
+     */
+    public boolean shouldRefreshEarly(long now, double beta, double random) {
+
+        return beta > 0D && now - Math.max(loadMillis, 1L) * beta * Math.log(random) >= expireAt;
+    }
+
+}
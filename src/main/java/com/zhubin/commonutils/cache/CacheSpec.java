@@ -0,0 +1,64 @@
+package com.zhubin.commonutils.cache;
+
+import lombok.Data;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 单个缓存的配置
+ */
+@Data
+public class CacheSpec {
+
+    /**
+     * 本地缓存最大条数
+     */
+    private long localMaxSize = 10000L;
+
+    /**
+     * 本地缓存写入后的存活时间，单位为毫秒
+     */
+    private long localTtl = 60 * 1000L;
+
+    /**
+     * redis缓存的存活时间，单位为毫秒
+     */
+    private long remoteTtl = 10 * 60 * 1000L;
+
+    /**
+     * 是否缓存null值
+     */
+    private boolean allowNullValues = true;
+
+    /**
+     * 是否开启防击穿：集群内同一个key同时只有一个节点加载，其他节点返回旧值或等待；仅对 @Cacheable(sync = true) 生效
+     */
+    private boolean stampedeProtection = false;
+
+    /**
+     * 逻辑过期后redis中旧值的保留时间，单位为毫秒
+     */
+    private long staleTtl = 60 * 1000L;
+
+    /**
+     * 概率提前刷新系数，0表示关闭
+     */
+    private double refreshAheadBeta = 1D;
+
+    /**
+     * 是否在后台线程刷新：开启时发现逻辑过期或命中提前刷新的调用直接返回旧值，刷新交给后台线程执行；
+     * 后台线程不带调用方的线程上下文(事务、安全上下文等)，被缓存方法依赖这些上下文时应关闭，由发现的调用同步刷新
+     */
+    private boolean asyncRefresh = true;
+
+    /**
+     * 加载锁的失效时间，单位为毫秒，应大于加载耗时
+     */
+    private long loadLockExpire = 10 * 1000L;
+
+    /**
+     * 没有旧值时等待其他节点加载的最大时间，单位为毫秒，超时后本节点直接加载
+     */
+    private long loadWaitTime = 3 * 1000L;
+
+}
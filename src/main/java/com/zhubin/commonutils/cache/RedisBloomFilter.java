@@ -0,0 +1,413 @@
+package com.zhubin.commonutils.cache;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 基于redis位图的布隆过滤器：写入时批量写redis并同步写本地，查询先读本地位数组；
+ * 本地位数组定时以redis位图整体替换，以获得其他节点写入的数据及其他节点重建的结果。
+ * 本地判定不存在时直接返回，不访问redis，其他节点刚写入、尚未同步的key在下次同步前可能被误拦截；
+ * 可按每秒许可数开启向redis确认(GETBIT)，超出许可的请求仍以本地结果返回，避免不存在key的流量穿透到redis。未完成首次同步时判定为可能存在
+ */
+@Slf4j
+public class RedisBloomFilter {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * 单次管道写入的key数量
+     */
+    private static final int PIPELINE_BATCH_SIZE = 1000;
+
+    /**
+     * redis位图允许的最大位数
+     */
+    private static final long MAX_BITS = 1L << 32;
+
+    private static final String REBUILD_SUFFIX = ":rebuild";
+
+    /**
+     * 临时位图的过期时间，每批写入后续期；重建进程异常退出时临时位图自动过期，不再被双写
+     */
+    private static final long REBUILD_TTL_MILLIS = 10 * 60 * 1000L;
+
+    /**
+     * 写入位图；重建进行中(临时位图存在)时同时写入临时位图，避免重建期间写入的数据在替换时丢失
+     */
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            "local rebuilding = redis.call('exists', KEYS[2]) == 1 "
+                    + "for i = 1, #ARGV do redis.call('setbit', KEYS[1], ARGV[i], 1) "
+                    + "if rebuilding then redis.call('setbit', KEYS[2], ARGV[i], 1) end end return 0", Long.class);
+
+    /**
+     * 以临时位图替换redis位图，RENAME会带上临时位图的过期时间，替换后移除
+     */
+    private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('rename', KEYS[1], KEYS[2]) redis.call('persist', KEYS[2]) return 0", Long.class);
+
+    @Getter
+    private final String name;
+
+    /**
+     * redis位图key
+     */
+    private final byte[] redisKey;
+
+    /**
+     * 重建使用的临时位图key，与redis位图key位于同一集群槽位
+     */
+    private final byte[] rebuildKey;
+
+    /**
+     * 写入脚本的key：redis位图key、临时位图key
+     */
+    private final List<String> scriptKeys;
+
+    /**
+     * 替换脚本的key：临时位图key、redis位图key
+     */
+    private final List<String> replaceKeys;
+
+    /**
+     * 本地未命中时向redis确认的限流器，为null时不确认
+     */
+    private final RateLimiter remoteConfirmLimiter;
+
+    /**
+     * 位数组长度
+     */
+    @Getter
+    private final long numBits;
+
+    /**
+     * 哈希函数个数
+     */
+    @Getter
+    private final int numHashFunctions;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 本地位数组，位i对应 words[i >>> 6] 的第 (i & 63) 位
+     */
+    private volatile AtomicLongArray localBits;
+
+    /**
+     * 是否已完成首次同步
+     */
+    @Getter
+    private volatile boolean ready;
+
+    /**
+     * @param name 名称
+     * @param redisKey redis位图key
+     * @param expectedInsertions 预计写入数量
+     * @param fpp 期望误判率
+     * @param stringRedisTemplate redis操作
+     */
+    public RedisBloomFilter(String name, String redisKey, long expectedInsertions, double fpp, StringRedisTemplate stringRedisTemplate) {
+
+        this(name, redisKey, expectedInsertions, fpp, 0D, stringRedisTemplate);
+    }
+
+    /**
+     * @param name 名称
+     * @param redisKey redis位图key
+     * @param expectedInsertions 预计写入数量
+     * @param fpp 期望误判率
+     * @param remoteConfirmPermitsPerSecond 本地未命中时每秒最多向redis确认的次数，小于等于0时不确认
+     * @param stringRedisTemplate redis操作
+     */
+    public RedisBloomFilter(String name, String redisKey, long expectedInsertions, double fpp, double remoteConfirmPermitsPerSecond,
+                            StringRedisTemplate stringRedisTemplate) {
+
+        if (expectedInsertions <= 0L) {
+            throw new IllegalArgumentException(String.format("The expectedInsertions of bloom filter must be positive, name = %s", name));
+        }
+        if (fpp <= 0D || fpp >= 1D) {
+            throw new IllegalArgumentException(String.format("The fpp of bloom filter must be between 0 and 1, name = %s", name));
+        }
+        this.name = name;
+        this.redisKey = redisKey.getBytes(StandardCharsets.UTF_8);
+        String rebuildKey = rebuildKey(redisKey);
+        this.rebuildKey = rebuildKey.getBytes(StandardCharsets.UTF_8);
+        this.scriptKeys = Arrays.asList(redisKey, rebuildKey);
+        this.replaceKeys = Arrays.asList(rebuildKey, redisKey);
+        this.remoteConfirmLimiter = remoteConfirmPermitsPerSecond > 0D ? RateLimiter.create(remoteConfirmPermitsPerSecond) : null;
+        this.numBits = optimalNumOfBits(expectedInsertions, fpp);
+        if (this.numBits > MAX_BITS) {
+            throw new IllegalArgumentException(String.format("The bloom filter is too large for redis bitmap, name = %s, numBits = %d", name, numBits));
+        }
+        this.numHashFunctions = optimalNumOfHashFunctions(expectedInsertions, numBits);
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localBits = new AtomicLongArray(words(numBits));
+    }
+
+    /**
+     * 判断key是否可能存在：本地位数组全部命中时直接返回；未命中时开启确认且获取到许可才以 GETBIT 向redis确认未命中的位
+     * @param key key
+     * @return false表示一定不存在
+     */
+    public boolean mightContain(Object key) {
+
+        if (!ready) {
+            return true;
+        }
+        AtomicLongArray bits = this.localBits;
+        long[] hashes = hashes(key);
+        List<Long> missing = null;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = index(hashes, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                if (missing == null) {
+                    missing = new ArrayList<>(numHashFunctions - i);
+                }
+                missing.add(index);
+            }
+        }
+        if (missing == null) {
+            return true;
+        }
+        return remoteConfirmLimiter != null && remoteConfirmLimiter.tryAcquire() && confirmRemote(bits, missing);
+    }
+
+    /**
+     * 写入单个key
+     * @param key key
+     */
+    public void put(Object key) {
+
+        putAll(Collections.singletonList(key));
+    }
+
+    /**
+     * 批量写入，按批次以脚本写redis，重建进行中时同时写入临时位图
+     * @param keys key集合
+     */
+    public void putAll(Iterable<?> keys) {
+
+        List<long[]> batch = new ArrayList<>(PIPELINE_BATCH_SIZE);
+        Iterator<?> iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            batch.add(hashes(iterator.next()));
+            if (batch.size() >= PIPELINE_BATCH_SIZE || !iterator.hasNext()) {
+                String[] indexes = new String[batch.size() * numHashFunctions];
+                int n = 0;
+                for (long[] hashes : batch) {
+                    for (int i = 0; i < numHashFunctions; i++) {
+                        indexes[n++] = String.valueOf(index(hashes, i));
+                    }
+                }
+                stringRedisTemplate.execute(PUT_SCRIPT, scriptKeys, (Object[]) indexes);
+                AtomicLongArray bits = this.localBits;
+                for (long[] hashes : batch) {
+                    for (int i = 0; i < numHashFunctions; i++) {
+                        setLocal(bits, index(hashes, i));
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 从redis同步到本地，以redis位图整体替换本地位数组，其他节点重建后的结果同样生效
+     */
+    public void sync() {
+
+        this.localBits = loadRemote();
+        ready = true;
+    }
+
+    /**
+     * 以全量数据重建：先创建临时位图，重建期间其他写入同时写入临时位图，全量写入后原子替换，并以重建结果替换本地位数组。
+     * 重建开始前写入、但不在全量数据中的key会被清除，keys应在调用后再读取数据源(如惰性迭代)。
+     * 临时位图带过期时间并在每批写入后续期，重建失败时删除临时位图，不再双写
+     * @param keys 全量key
+     */
+    public void rebuild(Iterable<?> keys) {
+
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(rebuildKey);
+            // 创建临时位图，标记重建开始
+            connection.stringCommands().setBit(rebuildKey, 0L, false);
+            connection.keyCommands().pExpire(rebuildKey, REBUILD_TTL_MILLIS);
+            return null;
+        });
+        boolean replaced = false;
+        try {
+            List<long[]> batch = new ArrayList<>(PIPELINE_BATCH_SIZE);
+            Iterator<?> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                batch.add(hashes(iterator.next()));
+                if (batch.size() >= PIPELINE_BATCH_SIZE || !iterator.hasNext()) {
+                    stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                        for (long[] hashes : batch) {
+                            for (int i = 0; i < numHashFunctions; i++) {
+                                connection.stringCommands().setBit(rebuildKey, index(hashes, i), true);
+                            }
+                        }
+                        connection.keyCommands().pExpire(rebuildKey, REBUILD_TTL_MILLIS);
+                        return null;
+                    });
+                    batch.clear();
+                }
+            }
+            stringRedisTemplate.execute(REPLACE_SCRIPT, replaceKeys);
+            replaced = true;
+        } finally {
+            if (!replaced) {
+                deleteRebuildKey();
+            }
+        }
+        sync();
+        log.info("Bloom filter rebuilt, name = {}, numBits = {}, numHashFunctions = {}", name, numBits, numHashFunctions);
+    }
+
+    private void deleteRebuildKey() {
+
+        try {
+            stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(rebuildKey));
+        } catch (Exception e) {
+            log.error(String.format("Delete bloom filter rebuild key error, name = %s", name), e);
+        }
+    }
+
+    /**
+     * 本地未命中的位向redis确认，均已置位时同步到本地；redis异常时判定为可能存在
+     */
+    private boolean confirmRemote(AtomicLongArray bits, List<Long> missing) {
+
+        List<Object> results;
+        try {
+            results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Long index : missing) {
+                    connection.stringCommands().getBit(redisKey, index);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error(String.format("Confirm bloom filter from redis error, name = %s", name), e);
+            return true;
+        }
+        for (Object result : results) {
+            if (!Boolean.TRUE.equals(result)) {
+                return false;
+            }
+        }
+        missing.forEach(index -> setLocal(bits, index));
+        return true;
+    }
+
+    private AtomicLongArray loadRemote() {
+
+        AtomicLongArray bits = new AtomicLongArray(words(numBits));
+        byte[] remote = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(redisKey));
+        if (remote != null) {
+            mergeRedisBytes(bits, remote);
+        }
+        return bits;
+    }
+
+    /**
+     * redis位图的位序：第i位位于第 i >> 3 个字节，从高位开始
+     */
+    private static void mergeRedisBytes(AtomicLongArray bits, byte[] remote) {
+
+        int length = bits.length();
+        for (int word = 0; word < length; word++) {
+            long value = 0L;
+            int base = word << 3;
+            for (int b = 0; b < Long.BYTES && base + b < remote.length; b++) {
+                int octet = Integer.reverse(remote[base + b] & 0xFF) >>> 24;
+                value |= ((long) octet) << (b << 3);
+            }
+            if (value != 0L) {
+                orWord(bits, word, value);
+            }
+        }
+    }
+
+    private static void setLocal(AtomicLongArray bits, long index) {
+
+        orWord(bits, (int) (index >>> 6), 1L << index);
+    }
+
+    private static void orWord(AtomicLongArray bits, int word, long mask) {
+
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current | mask) == current) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private static long[] hashes(Object key) {
+
+        HashCode hashCode = HASH_FUNCTION.hashString(String.valueOf(key), StandardCharsets.UTF_8);
+        byte[] bytes = hashCode.asBytes();
+        long hash1 = hashCode.asLong();
+        long hash2 = 0L;
+        for (int i = 15; i >= 8; i--) {
+            hash2 = (hash2 << 8) | (bytes[i] & 0xFF);
+        }
+        return new long[]{hash1, hash2};
+    }
+
+    /**
+     * 双重哈希得到第i个位置
+     */
+    private long index(long[] hashes, int i) {
+
+        return ((hashes[0] + i * hashes[1]) & Long.MAX_VALUE) % numBits;
+    }
+
+    private static int words(long numBits) {
+
+        return (int) ((numBits + 63) >>> 6);
+    }
+
+    /**
+     * 临时位图key需与redis位图key位于同一集群槽位才能RENAME：redis位图key不含哈希标签时以其整体作为标签
+     */
+    private static String rebuildKey(String redisKey) {
+
+        int start = redisKey.indexOf('{');
+        int end = start < 0 ? -1 : redisKey.indexOf('}', start + 1);
+        if (end > start + 1) {
+            return redisKey + REBUILD_SUFFIX;
+        }
+        return "{" + redisKey + "}" + REBUILD_SUFFIX;
+    }
+
+    private static long optimalNumOfBits(long n, double p) {
+
+        return (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    }
+
+    private static int optimalNumOfHashFunctions(long n, long m) {
+
+        return Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+}
@@ -0,0 +1,368 @@
+package com.zhubin.commonutils.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.zhubin.commonutils.redis.DistributeLockContext;
+import com.zhubin.commonutils.redis.DistributeLockUtil;
+import com.zhubin.commonutils.redis.exception.DistributeLockTimeoutException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 二级缓存：本地缓存(L1，按条数与存活时间淘汰) + redis(L2)；写入与删除时通过redis发布订阅通知其他节点清除本地缓存。
+ * 开启防击穿后，@Cacheable(sync = true) 未命中时通过分布式锁保证集群内只有一个节点加载，逻辑过期后返回旧值并后台刷新，
+ * 临近过期时按概率提前刷新。非sync的 @Cacheable 没有valueLoader，无法防击穿：逻辑过期的值按未命中处理，由每个调用各自加载后写入
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final String KEY_SEPARATOR = "::";
+
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    /**
+     * 加载锁key前缀
+     */
+    private static final String LOAD_LOCK_PREFIX = "cache:load:";
+
+    /**
+     * 等待其他节点加载时每次自旋的时间，单位为毫秒
+     */
+    private static final long LOAD_SPIN_WAITING_TIME = 50L;
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final CacheSpec spec;
+
+    private final Cache<String, Object> localCache;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder remoteHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 本节点正在刷新的key
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public TwoLevelCache(String name, CacheSpec spec, RedisTemplate<String, Object> redisTemplate, TwoLevelCacheManager cacheManager) {
+
+        super(spec.isAllowNullValues());
+        this.name = name;
+        this.spec = spec;
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.localCache = CacheBuilder.newBuilder()
+                .maximumSize(spec.getLocalMaxSize())
+                .expireAfterWrite(spec.getLocalTtl(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Override
+    public Object getNativeCache() {
+
+        return localCache;
+    }
+
+    /**
+     * 非sync的 @Cacheable 读取：没有valueLoader，无法刷新，逻辑过期的值按未命中处理，避免旧值在保留期内一直返回
+     */
+    @Override
+    protected Object lookup(Object key) {
+
+        String cacheKey = cacheKey(key);
+        long now = System.currentTimeMillis();
+        Object value = localCache.getIfPresent(cacheKey);
+        if (value != null && !isExpired(value, now)) {
+            localHits.increment();
+            return unwrap(value);
+        }
+        value = redisTemplate.opsForValue().get(cacheKey);
+        if (value != null && !isExpired(value, now)) {
+            remoteHits.increment();
+            localCache.put(cacheKey, value);
+            return unwrap(value);
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+
+        String cacheKey = cacheKey(key);
+        Object value = localCache.getIfPresent(cacheKey);
+        if (value != null) {
+            localHits.increment();
+            return (T) fromStoreValue(checkFreshness(key, cacheKey, value, valueLoader));
+        }
+        // 本次调用已执行过valueLoader时不再刷新，valueLoader只能执行一次
+        boolean[] loaded = new boolean[1];
+        try {
+            // 本地对同一个key只加载一次
+            value = localCache.get(cacheKey, () -> {
+                Object remote = redisTemplate.opsForValue().get(cacheKey);
+                if (remote != null) {
+                    remoteHits.increment();
+                    return remote;
+                }
+                misses.increment();
+                loaded[0] = true;
+                return spec.isStampedeProtection() ? loadWithLock(key, cacheKey, valueLoader) : loadAndPut(key, cacheKey, valueLoader);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ValueRetrievalException) {
+                throw (ValueRetrievalException) cause;
+            }
+            throw new ValueRetrievalException(key, valueLoader, cause);
+        }
+        return (T) fromStoreValue(loaded[0] ? unwrap(value) : checkFreshness(key, cacheKey, value, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+
+        String cacheKey = cacheKey(key);
+        Object storeValue = wrap(toStoreValue(value), 0L);
+        putRemote(cacheKey, storeValue);
+        localCache.put(cacheKey, storeValue);
+        cacheManager.publishEvict(name, cacheKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+
+        String cacheKey = cacheKey(key);
+        redisTemplate.delete(cacheKey);
+        localCache.invalidate(cacheKey);
+        cacheManager.publishEvict(name, cacheKey);
+    }
+
+    @Override
+    public void clear() {
+
+        ScanOptions options = ScanOptions.scanOptions().match(name + KEY_SEPARATOR + "*").count(CLEAR_BATCH_SIZE).build();
+        List<String> keys = new ArrayList<>(CLEAR_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() >= CLEAR_BATCH_SIZE) {
+                    redisTemplate.delete(keys);
+                    keys.clear();
+                }
+            }
+        }
+        if (!keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+        localCache.invalidateAll();
+        cacheManager.publishClear(name);
+    }
+
+    /**
+     * @return 命中统计快照
+     */
+    public TwoLevelCacheStats getStats() {
+
+        return new TwoLevelCacheStats(name, localHits.sum(), remoteHits.sum(), misses.sum(), localCache.size());
+    }
+
+    /**
+     * 收到其他节点的通知，清除本地缓存
+     * @param cacheKey 缓存key，为null时清除全部
+     */
+    void evictLocal(String cacheKey) {
+
+        if (cacheKey == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * 集群内只有一个节点加载，其他节点自旋等待后从redis读取；等待超时则本节点直接加载
+     */
+    private Object loadWithLock(Object key, String cacheKey, Callable<?> valueLoader) {
+
+        try {
+            return DistributeLockUtil.supplySpinLock(() -> {
+                // 获取到锁后再检查一次，其他节点可能已经加载完成
+                Object remote = redisTemplate.opsForValue().get(cacheKey);
+                return remote != null ? remote : loadAndPut(key, cacheKey, valueLoader);
+            }, lockKey(cacheKey), spec.getLoadLockExpire(), null, LOAD_SPIN_WAITING_TIME, spec.getLoadWaitTime());
+        } catch (DistributeLockTimeoutException e) {
+            log.warn("Wait for cache loading timeout, load directly, key = {}", cacheKey);
+            return loadAndPut(key, cacheKey, valueLoader);
+        }
+    }
+
+    /**
+     * 已逻辑过期或命中概率提前刷新时触发刷新：后台刷新时返回当前值；同步刷新时返回新值，未获得刷新权或刷新失败时返回当前值
+     */
+    private Object checkFreshness(Object key, String cacheKey, Object value, Callable<?> valueLoader) {
+
+        if (!(value instanceof CacheEnvelope)) {
+            return value;
+        }
+        CacheEnvelope envelope = (CacheEnvelope) value;
+        long now = System.currentTimeMillis();
+        if (envelope.isExpired(now)
+                || envelope.shouldRefreshEarly(now, spec.getRefreshAheadBeta(), 1D - ThreadLocalRandom.current().nextDouble())) {
+            if (spec.isAsyncRefresh()) {
+                refreshAsync(key, cacheKey, envelope, valueLoader);
+            } else {
+                Object refreshed = refresh(key, cacheKey, envelope, valueLoader);
+                if (refreshed != null) {
+                    return unwrap(refreshed);
+                }
+            }
+        }
+        return envelope.getValue();
+    }
+
+    /**
+     * 后台刷新，本节点同一个key只有一个刷新任务；线程池队列满时放弃本次刷新。
+     * 本次调用不执行valueLoader，valueLoader只在后台线程执行一次，不带调用方的线程上下文
+     */
+    private void refreshAsync(Object key, String cacheKey, CacheEnvelope current, Callable<?> valueLoader) {
+
+        if (!refreshing.add(cacheKey)) {
+            return;
+        }
+        try {
+            cacheManager.getRefreshExecutor().execute(() -> {
+                try {
+                    doRefresh(key, cacheKey, current, valueLoader);
+                } finally {
+                    refreshing.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Refresh queue is full, skip refresh, key = {}", cacheKey);
+            refreshing.remove(cacheKey);
+        }
+    }
+
+    /**
+     * 在调用线程内刷新，本节点同一个key只有一个调用刷新，其余调用直接返回旧值
+     * @return 刷新后的缓存值，未获得刷新权或刷新失败时返回null
+     */
+    private Object refresh(Object key, String cacheKey, CacheEnvelope current, Callable<?> valueLoader) {
+
+        if (!refreshing.add(cacheKey)) {
+            return null;
+        }
+        try {
+            return doRefresh(key, cacheKey, current, valueLoader);
+        } finally {
+            refreshing.remove(cacheKey);
+        }
+    }
+
+    /**
+     * 集群内通过分布式锁只有一个节点刷新
+     * @return 刷新后的缓存值，未获得锁或刷新失败时返回null
+     */
+    private Object doRefresh(Object key, String cacheKey, CacheEnvelope current, Callable<?> valueLoader) {
+
+        DistributeLockContext lockContext = null;
+        try {
+            lockContext = DistributeLockUtil.tryLockExclusive(lockKey(cacheKey), spec.getLoadLockExpire());
+            if (!lockContext.getGainLock()) {
+                return null;
+            }
+            Object remote = redisTemplate.opsForValue().get(cacheKey);
+            // 其他节点已经刷新过，直接更新本地
+            Object stored = remote instanceof CacheEnvelope && ((CacheEnvelope) remote).getExpireAt() > current.getExpireAt()
+                    ? remote : loadAndPut(key, cacheKey, valueLoader);
+            localCache.put(cacheKey, stored);
+            cacheManager.publishEvict(name, cacheKey);
+            return stored;
+        } catch (Exception e) {
+            log.error(String.format("Refresh cache error, return stale value, key = %s", cacheKey), e);
+            return null;
+        } finally {
+            if (lockContext != null && lockContext.getGainLock()) {
+                lockContext.releaseLock();
+            }
+        }
+    }
+
+    private Object loadAndPut(Object key, String cacheKey, Callable<?> valueLoader) {
+
+        long start = System.currentTimeMillis();
+        Object loaded;
+        try {
+            loaded = toStoreValue(valueLoader.call());
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        Object stored = wrap(loaded, System.currentTimeMillis() - start);
+        putRemote(cacheKey, stored);
+        return stored;
+    }
+
+    private Object wrap(Object storeValue, long loadMillis) {
+
+        if (!spec.isStampedeProtection()) {
+            return storeValue;
+        }
+        return new CacheEnvelope(storeValue, System.currentTimeMillis() + spec.getRemoteTtl(), loadMillis);
+    }
+
+    private static boolean isExpired(Object value, long now) {
+
+        return value instanceof CacheEnvelope && ((CacheEnvelope) value).isExpired(now);
+    }
+
+    private static Object unwrap(Object value) {
+
+        return value instanceof CacheEnvelope ? ((CacheEnvelope) value).getValue() : value;
+    }
+
+    private void putRemote(String cacheKey, Object storeValue) {
+
+        long ttl = storeValue instanceof CacheEnvelope ? spec.getRemoteTtl() + spec.getStaleTtl() : spec.getRemoteTtl();
+        redisTemplate.opsForValue().set(cacheKey, storeValue, ttl, TimeUnit.MILLISECONDS);
+    }
+
+    private static String lockKey(String cacheKey) {
+
+        return LOAD_LOCK_PREFIX + cacheKey;
+    }
+
+    private String cacheKey(Object key) {
+
+        return name + KEY_SEPARATOR + key;
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.zhubin.commonutils.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 二级缓存管理器：按缓存名称创建二级缓存，并通过redis频道广播/接收本地缓存失效通知。
+ * 通知格式：发送方ID + 换行 + 缓存名称 + 换行 + 缓存key，缓存key为空表示清除整个缓存
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener, DisposableBean {
+
+    /**
+     * 后台刷新线程数
+     */
+    private static final int REFRESH_THREADS = 4;
+
+    /**
+     * 后台刷新队列长度，队列满时放弃本次刷新，继续返回旧值
+     */
+    private static final int REFRESH_QUEUE_SIZE = 1000;
+
+    private static final char MESSAGE_SEPARATOR = '\n';
+
+    /**
+     * 本节点ID，用于忽略自己发出的通知
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 失效通知频道
+     */
+    private final String channel;
+
+    /**
+     * 默认缓存配置
+     */
+    private final CacheSpec defaultSpec;
+
+    /**
+     * 按缓存名称的配置
+     */
+    private final Map<String, CacheSpec> specs;
+
+    /**
+     * 后台刷新线程池
+     */
+    @Getter
+    private final ExecutorService refreshExecutor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS,
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(REFRESH_QUEUE_SIZE), r -> {
+        Thread thread = new Thread(r, "two-level-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TwoLevelCacheManager(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                                String channel, CacheSpec defaultSpec, Map<String, CacheSpec> specs) {
+
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.channel = channel;
+        this.defaultSpec = defaultSpec;
+        this.specs = specs == null ? Collections.emptyMap() : specs;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+
+        return caches.computeIfAbsent(name, key -> new TwoLevelCache(key, specs.getOrDefault(key, defaultSpec), redisTemplate, this));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * @return 各缓存的命中统计快照
+     */
+    public List<TwoLevelCacheStats> getStats() {
+
+        List<TwoLevelCacheStats> stats = new ArrayList<>(caches.size());
+        caches.values().forEach(cache -> stats.add(cache.getStats()));
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+
+        try {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int first = body.indexOf(MESSAGE_SEPARATOR);
+            int second = body.indexOf(MESSAGE_SEPARATOR, first + 1);
+            if (first < 0 || second < 0 || nodeId.equals(body.substring(0, first))) {
+                return;
+            }
+            TwoLevelCache cache = caches.get(body.substring(first + 1, second));
+            if (cache == null) {
+                return;
+            }
+            String cacheKey = body.substring(second + 1);
+            cache.evictLocal(cacheKey.isEmpty() ? null : cacheKey);
+        } catch (Exception e) {
+            log.error("Handle cache invalidation message error, ", e);
+        }
+    }
+
+    /**
+     * 通知其他节点清除本地缓存
+     */
+    void publishEvict(String cacheName, String cacheKey) {
+
+        stringRedisTemplate.convertAndSend(channel, nodeId + MESSAGE_SEPARATOR + cacheName + MESSAGE_SEPARATOR + cacheKey);
+    }
+
+    /**
+     * 通知其他节点清除整个本地缓存
+     */
+    void publishClear(String cacheName) {
+
+        stringRedisTemplate.convertAndSend(channel, nodeId + MESSAGE_SEPARATOR + cacheName + MESSAGE_SEPARATOR);
+    }
+
+}
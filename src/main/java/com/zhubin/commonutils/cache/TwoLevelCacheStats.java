@@ -0,0 +1,51 @@
+package com.zhubin.commonutils.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 二级缓存命中统计快照
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TwoLevelCacheStats {
+
+    /**
+     * 缓存名称
+     */
+    private final String name;
+
+    /**
+     * 本地缓存命中次数
+     */
+    private final long localHits;
+
+    /**
+     * 本地未命中、redis命中次数
+     */
+    private final long remoteHits;
+
+    /**
+     * 两级均未命中次数
+     */
+    private final long misses;
+
+    /**
+     * 本地缓存当前条数
+     */
+    private final long localSize;
+
+    /**
+     * @return 两级合计命中率
+     */
+    public double hitRate() {
+
+        long total = localHits + remoteHits + misses;
+        return total == 0 ? 1D : (double) (localHits + remoteHits) / total;
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.zhubin.commonutils.cache.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 布隆过滤器防穿透注解，在 @Cacheable 之前执行：key一定不存在时不查询缓存与数据库，
+ * 直接返回null(返回类型为Optional时返回Optional.empty())；返回基本类型的方法不拦截。请勿在同一个类中调用
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BloomGuard {
+
+    /**
+     * 布隆过滤器名称，对应 common-utils.bloom.filters 下的配置
+     * @return 布隆过滤器名称
+     */
+    String filter();
+
+    /**
+     * 判断是否存在的key，可根据参数使用SPEL语法解析，如key = "#id"
+     * @return 判断是否存在的key
+     */
+    String key();
+
+}
@@ -0,0 +1,103 @@
+package com.zhubin.commonutils.cache.aop;
+
+import com.zhubin.commonutils.cache.BloomFilterRegistry;
+import com.zhubin.commonutils.cache.annotation.BloomGuard;
+import org.apache.commons.lang3.StringUtils;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import javax.annotation.Resource;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 布隆过滤器防穿透aop，优先级最高，在缓存切面之前执行
+ */
+@Aspect
+public class BloomGuardAop implements Ordered {
+
+    private static final String HASH_SYMBOL = "#";
+
+    /**
+     * SPEL表达式解析器
+     */
+    private final SpelExpressionParser spelExpressionParser = new SpelExpressionParser();
+
+    /**
+     * 参数名发现器
+     */
+    private final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 已解析的SPEL表达式
+     */
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Resource
+    private BloomFilterRegistry bloomFilterRegistry;
+
+    @Pointcut("@annotation(com.zhubin.commonutils.cache.annotation.BloomGuard)")
+    public void bloomGuardAop() {
+
+    }
+
+    @Around(value = "bloomGuardAop()")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method method = signature.getMethod();
+        BloomGuard guard = method.getAnnotation(BloomGuard.class);
+        Class<?> returnType = method.getReturnType();
+
+        if (!returnType.isPrimitive()) {
+            Object key = parseKey(guard.key(), method, joinPoint);
+            if (key != null && !bloomFilterRegistry.getFilter(guard.filter()).mightContain(key)) {
+                return Optional.class.equals(returnType) ? Optional.empty() : null;
+            }
+        }
+        return joinPoint.proceed();
+    }
+
+    @Override
+    public int getOrder() {
+
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private Object parseKey(String keyString, Method method, ProceedingJoinPoint joinPoint) {
+
+        if (StringUtils.isBlank(keyString)) {
+            throw new IllegalArgumentException(String.format("The key of BloomGuard cannot be empty, the name of method is %s", method.getName()));
+        }
+
+        // 无需SPEL校验
+        if (!keyString.contains(HASH_SYMBOL)) {
+            return keyString;
+        }
+
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        if (parameterNames == null || parameterNames.length == 0) {
+            throw new IllegalArgumentException(String.format("BloomGuard cannot discover parameter name from method, the name of method is %s", method.getName()));
+        }
+        EvaluationContext context = new StandardEvaluationContext();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < args.length; i++) {
+            context.setVariable(parameterNames[i], args[i]);
+        }
+        return expressions.computeIfAbsent(keyString, spelExpressionParser::parseExpression).getValue(context);
+    }
+
+}
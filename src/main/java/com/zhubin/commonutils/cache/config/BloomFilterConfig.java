@@ -0,0 +1,40 @@
+package com.zhubin.commonutils.cache.config;
+
+import com.zhubin.commonutils.cache.BloomFilterRegistry;
+import com.zhubin.commonutils.cache.RedisBloomFilter;
+import com.zhubin.commonutils.cache.aop.BloomGuardAop;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 布隆过滤器配置，common-utils.bloom.enabled=true 时开启
+ */
+@Configuration
+@EnableConfigurationProperties(BloomFilterProperties.class)
+@ConditionalOnProperty(prefix = "common-utils.bloom", name = "enabled", havingValue = "true")
+public class BloomFilterConfig {
+
+    @Bean
+    public BloomFilterRegistry bloomFilterRegistry(BloomFilterProperties properties, StringRedisTemplate stringRedisTemplate) {
+
+        List<RedisBloomFilter> filters = new ArrayList<>(properties.getFilters().size());
+        properties.getFilters().forEach((name, spec) -> filters.add(new RedisBloomFilter(name, properties.getKeyPrefix() + name,
+                spec.getExpectedInsertions(), spec.getFpp(), spec.getRemoteConfirmPermitsPerSecond(), stringRedisTemplate)));
+        return new BloomFilterRegistry(filters, properties.getSyncInterval());
+    }
+
+    @Bean
+    public BloomGuardAop bloomGuardAop() {
+
+        return new BloomGuardAop();
+    }
+
+}
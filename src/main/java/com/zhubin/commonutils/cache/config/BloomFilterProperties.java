@@ -0,0 +1,58 @@
+package com.zhubin.commonutils.cache.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 布隆过滤器配置项，前缀 common-utils.bloom
+ */
+@Data
+@ConfigurationProperties(prefix = "common-utils.bloom")
+public class BloomFilterProperties {
+
+    /**
+     * 是否开启布隆过滤器
+     */
+    private boolean enabled = false;
+
+    /**
+     * redis位图key前缀，后接过滤器名称
+     */
+    private String keyPrefix = "bloom:";
+
+    /**
+     * 本地位数组从redis同步的间隔，单位为毫秒
+     */
+    private long syncInterval = 30 * 1000L;
+
+    /**
+     * 按名称的过滤器配置，如 common-utils.bloom.filters.user.expected-insertions=1000000
+     */
+    private Map<String, FilterSpec> filters = new HashMap<>();
+
+    @Data
+    public static class FilterSpec {
+
+        /**
+         * 预计写入数量
+         */
+        private long expectedInsertions = 1000000L;
+
+        /**
+         * 期望误判率
+         */
+        private double fpp = 0.01D;
+
+        /**
+         * 本地判定不存在时每秒最多向redis确认的次数，用于弥补同步间隔内其他节点的写入，默认0不确认
+         */
+        private double remoteConfirmPermitsPerSecond = 0D;
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.zhubin.commonutils.cache.config;
+
+import com.zhubin.commonutils.cache.TwoLevelCacheManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 二级缓存配置，common-utils.cache.enabled=true 时开启，替换默认的CacheManager
+ */
+@Configuration
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
+@ConditionalOnProperty(prefix = "common-utils.cache", name = "enabled", havingValue = "true")
+public class TwoLevelCacheConfig {
+
+    @Bean
+    public RedisTemplate<String, Object> twoLevelCacheRedisTemplate(RedisConnectionFactory connectionFactory) {
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(StringRedisSerializer.UTF_8);
+        redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
+        return redisTemplate;
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisTemplate<String, Object> twoLevelCacheRedisTemplate,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             TwoLevelCacheProperties properties) {
+
+        return new TwoLevelCacheManager(twoLevelCacheRedisTemplate, stringRedisTemplate, properties.getChannel(),
+                properties.getDefaultSpec(), properties.getSpecs());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer twoLevelCacheListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        TwoLevelCacheManager cacheManager,
+                                                                        TwoLevelCacheProperties properties) {
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(properties.getChannel()));
+        return container;
+    }
+
+}
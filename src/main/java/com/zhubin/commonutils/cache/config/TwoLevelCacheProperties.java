@@ -0,0 +1,39 @@
+package com.zhubin.commonutils.cache.config;
+
+import com.zhubin.commonutils.cache.CacheSpec;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 二级缓存配置项，前缀 common-utils.cache
+ */
+@Data
+@ConfigurationProperties(prefix = "common-utils.cache")
+public class TwoLevelCacheProperties {
+
+    /**
+     * 是否开启二级缓存
+     */
+    private boolean enabled = false;
+
+    /**
+     * 本地缓存失效通知频道
+     */
+    private String channel = "common-utils:cache:invalidate";
+
+    /**
+     * 默认缓存配置
+     */
+    private CacheSpec defaultSpec = new CacheSpec();
+
+    /**
+     * 按缓存名称的配置，如 common-utils.cache.specs.user.local-max-size=1000
+     */
+    private Map<String, CacheSpec> specs = new HashMap<>();
+
+}
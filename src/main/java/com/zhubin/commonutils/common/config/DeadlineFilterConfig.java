@@ -0,0 +1,30 @@
+package com.zhubin.commonutils.common.config;
+
+import com.zhubin.commonutils.common.filter.DeadlineFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 请求截止时间过滤器配置，common-utils.deadline.enabled=true 时开启
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "common-utils.deadline", name = "enabled", havingValue = "true")
+public class DeadlineFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilter(
+            @Value("${common-utils.deadline.header:X-Request-Timeout}") String headerName,
+            @Value("${common-utils.deadline.default-timeout:0}") long defaultTimeout) {
+
+        FilterRegistrationBean<DeadlineFilter> registration = new FilterRegistrationBean<>(new DeadlineFilter(headerName, defaultTimeout));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+}
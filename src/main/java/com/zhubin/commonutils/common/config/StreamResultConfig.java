@@ -0,0 +1,30 @@
+package com.zhubin.commonutils.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zhubin.commonutils.common.pojo.StreamResult;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 流式响应配置：将应用的ObjectMapper注入StreamResult，使流式响应与普通Result响应的序列化规则一致
+ */
+@Configuration
+public class StreamResultConfig implements SmartInitializingSingleton {
+
+    private final ObjectProvider<ObjectMapper> objectMapper;
+
+    public StreamResultConfig(ObjectProvider<ObjectMapper> objectMapper) {
+
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        StreamResult.setObjectMapper(objectMapper.getIfAvailable());
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.zhubin.commonutils.common.controller;
+
+import com.zhubin.commonutils.common.utils.SnowflakeIdUtils;
+import com.zhubin.commonutils.redis.id.SegmentIdAllocator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 批量发号接口，供无法引入本工具包的服务使用，common-utils.id.controller.enabled=true 时开启。
+ * ID全部生成后再写响应头，发号失败时返回错误而不是截断的响应；生成后分块编码直接写入响应流，不构建List与Result对象。
+ * binary格式：4字节大端数量 + 每个ID 8字节大端；text格式：每行一个十进制ID。
+ * 号段模式仅对 common-utils.segment.tags 白名单内的业务标识发号，避免任意标识无限创建号段缓冲与redis计数器
+ */
+@RestController
+@ConditionalOnProperty(prefix = "common-utils.id.controller", name = "enabled", havingValue = "true")
+@RequestMapping("/id")
+public class IdController {
+
+    private static final String FORMAT_BINARY = "binary";
+
+    private static final String FORMAT_TEXT = "text";
+
+    /**
+     * 单次请求最大数量
+     */
+    private static final int MAX_COUNT = 100_000;
+
+    /**
+     * 分块编码与写出的ID数量
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * 十进制long的最大长度(含负号)加换行符
+     */
+    private static final int MAX_TEXT_LENGTH = 21;
+
+    private final ObjectProvider<SegmentIdAllocator> segmentIdAllocator;
+
+    /**
+     * 允许通过接口发号的业务标识
+     */
+    private final Set<String> segmentTags;
+
+    public IdController(ObjectProvider<SegmentIdAllocator> segmentIdAllocator,
+                        @Value("${common-utils.segment.tags:}") String[] segmentTags) {
+
+        this.segmentIdAllocator = segmentIdAllocator;
+        this.segmentTags = Arrays.stream(segmentTags).map(String::trim).filter(tag -> !tag.isEmpty()).collect(Collectors.toSet());
+    }
+
+    /**
+     * 批量获取雪花算法ID
+     * @param count 数量
+     * @param format 输出格式：binary/text
+     */
+    @GetMapping("/snowflake")
+    public void snowflake(@RequestParam(defaultValue = "1000") int count,
+                          @RequestParam(defaultValue = FORMAT_BINARY) String format,
+                          HttpServletResponse response) throws IOException {
+
+        write(count, format, response, (chunk, length) -> SnowflakeIdUtils.fill(chunk, 0, length));
+    }
+
+    /**
+     * 批量获取号段模式ID
+     * @param tag 业务标识
+     * @param count 数量
+     * @param format 输出格式：binary/text
+     */
+    @GetMapping("/segment/{tag}")
+    public void segment(@PathVariable String tag,
+                        @RequestParam(defaultValue = "1000") int count,
+                        @RequestParam(defaultValue = FORMAT_BINARY) String format,
+                        HttpServletResponse response) throws IOException {
+
+        SegmentIdAllocator allocator = segmentIdAllocator.getIfAvailable();
+        if (allocator == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Segment id allocator is not enabled");
+            return;
+        }
+        if (!segmentTags.contains(tag)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported segment tag");
+            return;
+        }
+        write(count, format, response, (chunk, length) -> allocator.fill(tag, chunk, 0, length));
+    }
+
+    private void write(int count, String format, HttpServletResponse response, ObjIntConsumer<long[]> generator) throws IOException {
+
+        if (count <= 0 || count > MAX_COUNT) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, String.format("The count must be between 1 and %d", MAX_COUNT));
+            return;
+        }
+        boolean binary = FORMAT_BINARY.equalsIgnoreCase(format);
+        if (!binary && !FORMAT_TEXT.equalsIgnoreCase(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, String.format("Unsupported format: %s", format));
+            return;
+        }
+
+        // 先生成再写响应，生成失败时响应尚未提交，由异常处理返回错误
+        long[] ids = new long[count];
+        generator.accept(ids, count);
+
+        byte[] buffer = new byte[Math.min(count, CHUNK_SIZE) * (binary ? Long.BYTES : MAX_TEXT_LENGTH) + Integer.BYTES];
+        ServletOutputStream out = response.getOutputStream();
+        int position = 0;
+        if (binary) {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(Integer.BYTES + (long) count * Long.BYTES);
+            position = putInt(buffer, position, count);
+        } else {
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        }
+
+        for (int offset = 0; offset < count; offset += CHUNK_SIZE) {
+            int end = Math.min(count, offset + CHUNK_SIZE);
+            for (int i = offset; i < end; i++) {
+                position = binary ? putLong(buffer, position, ids[i]) : putDecimalLine(buffer, position, ids[i]);
+            }
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    private static int putInt(byte[] buffer, int position, int value) {
+
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return position;
+    }
+
+    private static int putLong(byte[] buffer, int position, long value) {
+
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return position;
+    }
+
+    /**
+     * 十进制写入并追加换行，不经过String
+     */
+    private static int putDecimalLine(byte[] buffer, int position, long value) {
+
+        if (value < 0) {
+            buffer[position++] = '-';
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + Math.abs(value % 10));
+            value /= 10;
+        } while (value != 0);
+        // 反转数字顺序
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+        buffer[position++] = '\n';
+        return position;
+    }
+
+}
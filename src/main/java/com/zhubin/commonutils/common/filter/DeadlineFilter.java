@@ -0,0 +1,67 @@
+package com.zhubin.commonutils.common.filter;
+
+import com.zhubin.commonutils.common.utils.DeadlineContext;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 从请求头读取调用方剩余超时时间(毫秒)，写入 DeadlineContext，请求结束后清除；请求头的值小于等于0表示预算已耗尽，按已过期处理。
+ * 未携带请求头或格式错误时使用默认超时，默认超时小于等于0表示不设置
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    /**
+     * 超时时间请求头
+     */
+    private final String headerName;
+
+    /**
+     * 默认超时时间，单位为毫秒
+     */
+    private final long defaultTimeout;
+
+    public DeadlineFilter(String headerName, long defaultTimeout) {
+
+        this.headerName = headerName;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Long timeout = parseTimeout(request.getHeader(headerName));
+        if (timeout != null) {
+            DeadlineContext.start(timeout);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+
+    /**
+     * @return 超时时间，为null时不设置截止时间
+     */
+    private Long parseTimeout(String header) {
+
+        if (StringUtils.isNotBlank(header)) {
+            try {
+                return Long.parseLong(header.trim());
+            } catch (NumberFormatException ignored) {
+                // 格式错误时使用默认超时
+            }
+        }
+        return defaultTimeout > 0L ? defaultTimeout : null;
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.zhubin.commonutils.common.pojo;
+
+import com.zhubin.commonutils.common.utils.IdCodec;
+import com.zhubin.commonutils.common.utils.SnowflakeIdUtils;
+import lombok.Data;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 游标分页结果：以上一页最后一条记录的雪花ID(及可选的排序键)作为游标，按键集条件查询下一页，
+ * 深分页与第一页的代价相同。查询时多取一条(pageSize + 1)用于判断是否还有下一页
+ */
+@Data
+public class CursorResult<T> {
+
+    private Integer code;
+
+    private String msg;
+
+    private List<T> data;
+
+    /**
+     * 下一页游标，没有下一页时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+
+    private CursorResult() {
+        this.setCode(200);
+        this.setMsg("success");
+    }
+
+    /**
+     * 按雪花ID排序的分页结果
+     * @param rows 查询结果，查询条数为pageSize + 1
+     * @param pageSize 每页条数
+     * @param idGetter 获取记录雪花ID的方法
+     * @return 分页结果
+     */
+    public static <T> CursorResult<T> of(List<T> rows, int pageSize, ToLongFunction<T> idGetter) {
+        return of(rows, pageSize, null, idGetter);
+    }
+
+    /**
+     * 按排序键 + 雪花ID排序的分页结果
+     * @param rows 查询结果，查询条数为pageSize + 1
+     * @param pageSize 每页条数
+     * @param sortKeyGetter 获取记录排序键的方法，为null时仅按雪花ID排序
+     * @param idGetter 获取记录雪花ID的方法
+     * @return 分页结果
+     */
+    public static <T> CursorResult<T> of(List<T> rows, int pageSize, ToLongFunction<T> sortKeyGetter, ToLongFunction<T> idGetter) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The pageSize of cursor result must be positive");
+        }
+        CursorResult<T> result = new CursorResult<>();
+        if (rows == null || rows.isEmpty()) {
+            result.setData(Collections.emptyList());
+            result.setHasMore(false);
+            return result;
+        }
+        boolean hasMore = rows.size() > pageSize;
+        List<T> page = hasMore ? rows.subList(0, pageSize) : rows;
+        result.setData(page);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            T last = page.get(page.size() - 1);
+            Cursor cursor = sortKeyGetter == null
+                    ? new Cursor(idGetter.applyAsLong(last), null)
+                    : new Cursor(idGetter.applyAsLong(last), sortKeyGetter.applyAsLong(last));
+            result.setNextCursor(cursor.encode());
+        }
+        return result;
+    }
+
+    /**
+     * 解析游标
+     * @param cursor 游标字符串
+     * @return 游标，为空时返回null，表示查询第一页
+     */
+    public static Cursor decodeCursor(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        if (cursor.length() == IdCodec.BASE62_LENGTH) {
+            return new Cursor(IdCodec.decodeBase62(cursor, 0), null);
+        }
+        if (cursor.length() == IdCodec.BASE62_LENGTH * 2) {
+            long sortKey = IdCodec.decodeBase62(cursor, 0) ^ Long.MIN_VALUE;
+            return new Cursor(IdCodec.decodeBase62(cursor, IdCodec.BASE62_LENGTH), sortKey);
+        }
+        throw new IllegalArgumentException(String.format("Illegal cursor: %s", cursor));
+    }
+
+    /**
+     * 游标：上一页最后一条记录的雪花ID与排序键
+     */
+    @Getter
+    public static final class Cursor {
+
+        /**
+         * 上一页最后一条记录的雪花ID
+         */
+        private final long lastId;
+
+        /**
+         * 上一页最后一条记录的排序键，可为null
+         */
+        private final Long sortKey;
+
+        private Cursor(long lastId, Long sortKey) {
+            this.lastId = lastId;
+            this.sortKey = sortKey;
+        }
+
+        /**
+         * 编码为紧凑的游标字符串：[排序键]雪花ID，各为定长11位base62；排序键翻转符号位后按无符号编码
+         * @return 游标字符串
+         */
+        public String encode() {
+            if (sortKey == null) {
+                return IdCodec.toBase62String(lastId);
+            }
+            char[] chars = new char[IdCodec.BASE62_LENGTH * 2];
+            int offset = IdCodec.encodeBase62(sortKey ^ Long.MIN_VALUE, chars, 0);
+            IdCodec.encodeBase62(lastId, chars, offset);
+            return new String(chars);
+        }
+
+        /**
+         * @return 上一页最后一条记录雪花ID中的生成时间戳，单位为毫秒，可用于按时间裁剪扫描范围
+         */
+        public long lastTimestamp() {
+            return SnowflakeIdUtils.extractTimestamp(lastId);
+        }
+
+        /**
+         * 键集条件SQL片段，参数通过 keysetParams() 按顺序绑定
+         * 例：倒序 "(create_time < ? OR (create_time = ? AND id < ?))"，仅按ID倒序 "id < ?"
+         * @param sortColumn 排序键列名，游标没有排序键时忽略
+         * @param idColumn 雪花ID列名
+         * @param descending 是否倒序
+         * @return SQL片段
+         */
+        public String keysetPredicate(String sortColumn, String idColumn, boolean descending) {
+            String operator = descending ? " < ?" : " > ?";
+            if (sortKey == null) {
+                return idColumn + operator;
+            }
+            return "(" + sortColumn + operator + " OR (" + sortColumn + " = ? AND " + idColumn + operator + "))";
+        }
+
+        /**
+         * @return 与 keysetPredicate 对应的绑定参数
+         */
+        public Object[] keysetParams() {
+            if (sortKey == null) {
+                return new Object[]{lastId};
+            }
+            return new Object[]{sortKey, sortKey, lastId};
+        }
+
+        /**
+         * 内存中的键集条件：记录是否排在游标之后
+         * @param rowSortKey 记录的排序键，游标没有排序键时忽略
+         * @param rowId 记录的雪花ID
+         * @param descending 是否倒序
+         * @return 是否排在游标之后
+         */
+        public boolean isAfter(long rowSortKey, long rowId, boolean descending) {
+            int compare = sortKey == null || rowSortKey == sortKey
+                    ? Long.compare(rowId, lastId)
+                    : Long.compare(rowSortKey, sortKey);
+            return descending ? compare < 0 : compare > 0;
+        }
+
+    }
+
+}
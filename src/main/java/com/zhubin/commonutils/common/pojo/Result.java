@@ -2,6 +2,9 @@ package com.zhubin.commonutils.common.pojo;
 
 import lombok.Data;
 
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 @Data
 public class Result<T> {
 
@@ -26,4 +29,12 @@ public class Result<T> {
         return result;
     }
 
+    public static <T> StreamResult<T> stream(Stream<T> data) {
+        return new StreamResult<>(200, "success", data.iterator(), data);
+    }
+
+    public static <T> StreamResult<T> stream(Iterator<T> data) {
+        return new StreamResult<>(200, "success", data, null);
+    }
+
 }
@@ -0,0 +1,145 @@
+package com.zhubin.commonutils.common.pojo;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 流式响应结果：以Result的结构 {"code":200,"msg":"success","data":[...]} 输出，data中的元素逐条序列化，按块刷新到响应流，内存占用与数据量无关。
+ * 使用应用的ObjectMapper(由 StreamResultConfig 注入)序列化，字段命名、日期格式与null处理与普通Result响应一致。
+ * 注意：writeTo 在MVC的异步线程中执行，此时请求线程已返回，请求内开启的事务已经结束，依赖事务的数据源(如数据库游标)需在数据源内部自行开启与关闭事务
+ */
+public class StreamResult<T> implements StreamingResponseBody {
+
+    /**
+     * 每序列化多少条元素刷新一次响应流
+     */
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private static volatile ObjectMapper objectMapper = new ObjectMapper();
+
+    @Getter
+    private final Integer code;
+
+    @Getter
+    private final String msg;
+
+    /**
+     * 数据源
+     */
+    private final Iterator<T> iterator;
+
+    /**
+     * 写出结束后关闭的资源，如Stream
+     */
+    private final AutoCloseable resource;
+
+    StreamResult(Integer code, String msg, Iterator<T> iterator, AutoCloseable resource) {
+
+        this.code = code;
+        this.msg = msg;
+        this.iterator = iterator;
+        this.resource = resource;
+    }
+
+    /**
+     * 设置序列化使用的ObjectMapper，未设置时使用默认配置的ObjectMapper
+     * @param mapper 应用的ObjectMapper
+     */
+    public static void setObjectMapper(ObjectMapper mapper) {
+
+        if (mapper != null) {
+            objectMapper = mapper;
+        }
+    }
+
+    /**
+     * 包装为带有JSON响应类型的ResponseEntity
+     * @return ResponseEntity
+     */
+    public ResponseEntity<StreamResult<T>> toResponseEntity() {
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(this);
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+
+        ObjectMapper mapper = objectMapper;
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(StreamUtils.nonClosing(outputStream), JsonEncoding.UTF8)) {
+            // 与Result同一个类序列化，data为Iterator时按数组逐条写出
+            Result<Iterator<T>> result = Result.ok(new FlushingIterator(generator));
+            result.setCode(code);
+            result.setMsg(msg);
+            mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).writeValue(generator, result);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            closeResource();
+        }
+    }
+
+    private void closeResource() throws IOException {
+
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Close stream result resource fail", e);
+        }
+    }
+
+    /**
+     * 每取出 FLUSH_INTERVAL 条元素时刷新一次，此时前面的元素已经序列化完成
+     */
+    private class FlushingIterator implements Iterator<T> {
+
+        private final JsonGenerator generator;
+
+        private int count;
+
+        FlushingIterator(JsonGenerator generator) {
+
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+
+            if (count > 0 && count % FLUSH_INTERVAL == 0) {
+                try {
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            count++;
+            return iterator.next();
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.zhubin.commonutils.common.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 请求截止时间上下文，基于ThreadLocal在当前线程内传递；截止时间为 System.nanoTime() 时间点，未设置时表示无截止时间
+ */
+public class DeadlineContext {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private DeadlineContext() {
+
+    }
+
+    /**
+     * 设置当前线程的截止时间，已有更早的截止时间时保留更早的
+     * @param timeoutMillis 从现在开始的剩余时间，单位为毫秒
+     */
+    public static void start(long timeoutMillis) {
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMillis));
+        Long current = DEADLINE.get();
+        if (current == null || deadline - current < 0L) {
+            DEADLINE.set(deadline);
+        }
+    }
+
+    /**
+     * 在指定剩余时间内执行函数，结束后恢复原截止时间
+     * @param timeoutMillis 剩余时间，单位为毫秒
+     * @param supplier 函数
+     * @param <T> 返回结果泛型
+     * @return 执行结果
+     */
+    public static <T> T call(long timeoutMillis, Supplier<T> supplier) {
+
+        Long previous = DEADLINE.get();
+        start(timeoutMillis);
+        try {
+            return supplier.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * @return 当前线程的截止时间，未设置时为null
+     */
+    public static Long current() {
+
+        return DEADLINE.get();
+    }
+
+    /**
+     * @return 剩余时间，单位为毫秒，已过期时为0；未设置时为 Long.MAX_VALUE
+     */
+    public static long remainingMillis() {
+
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : remainingMillis(deadline);
+    }
+
+    /**
+     * @param deadline 截止时间，System.nanoTime() 时间点
+     * @return 剩余时间，单位为毫秒，已过期时为0
+     */
+    public static long remainingMillis(long deadline) {
+
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * @return 是否已超过截止时间，未设置时为false
+     */
+    public static boolean isExpired() {
+
+        Long deadline = DEADLINE.get();
+        return deadline != null && deadline - System.nanoTime() <= 0L;
+    }
+
+    /**
+     * 清除当前线程的截止时间
+     */
+    public static void clear() {
+
+        DEADLINE.remove();
+    }
+
+    private static void restore(Long previous) {
+
+        if (previous == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(previous);
+        }
+    }
+
+}
@@ -0,0 +1,279 @@
+package com.zhubin.commonutils.common.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description ID紧凑编码工具类：base62(定长11位，区分大小写)、Crockford base32(定长13位，不区分大小写)，
+ * 按无符号64位整数编码，直接写入调用方提供的char[]/ByteBuffer，编解码过程不产生对象
+ */
+public final class IdCodec {
+
+    /**
+     * base62编码定长，62^11 > 2^64
+     */
+    public static final int BASE62_LENGTH = 11;
+
+    /**
+     * Crockford base32编码定长，5 * 13 >= 64
+     */
+    public static final int BASE32_LENGTH = 13;
+
+    private static final char[] BASE62_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final char[] BASE32_ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final int BASE62 = 62;
+
+    private static final int BASE32_MASK = 31;
+
+    private static final int BASE32_SHIFT = 5;
+
+    private static final byte[] BASE62_DIGITS = new byte[128];
+
+    private static final byte[] BASE32_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(BASE62_DIGITS, (byte) -1);
+        Arrays.fill(BASE32_DIGITS, (byte) -1);
+        for (int i = 0; i < BASE62_ALPHABET.length; i++) {
+            BASE62_DIGITS[BASE62_ALPHABET[i]] = (byte) i;
+        }
+        for (int i = 0; i < BASE32_ALPHABET.length; i++) {
+            BASE32_DIGITS[BASE32_ALPHABET[i]] = (byte) i;
+            BASE32_DIGITS[Character.toLowerCase(BASE32_ALPHABET[i])] = (byte) i;
+        }
+        // Crockford约定：易混淆字符按对应数字解析
+        BASE32_DIGITS['O'] = BASE32_DIGITS['o'] = 0;
+        BASE32_DIGITS['I'] = BASE32_DIGITS['i'] = 1;
+        BASE32_DIGITS['L'] = BASE32_DIGITS['l'] = 1;
+    }
+
+    private IdCodec() {
+    }
+
+    /**
+     * base62编码写入char数组
+     * @param value 无符号64位整数
+     * @param dst 目标数组
+     * @param offset 起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int encodeBase62(long value, char[] dst, int offset) {
+
+        checkRange(dst.length, offset, BASE62_LENGTH);
+        for (int i = offset + BASE62_LENGTH - 1; i >= offset; i--) {
+            int digit = base62Digit(value);
+            value = base62Quotient(value);
+            dst[i] = BASE62_ALPHABET[digit];
+        }
+        return offset + BASE62_LENGTH;
+    }
+
+    /**
+     * base62编码写入ByteBuffer(ASCII)，从当前position开始写入
+     * @param value 无符号64位整数
+     * @param dst 目标缓冲区
+     */
+    public static void encodeBase62(long value, ByteBuffer dst) {
+
+        int offset = dst.position();
+        checkRange(dst.limit(), offset, BASE62_LENGTH);
+        for (int i = offset + BASE62_LENGTH - 1; i >= offset; i--) {
+            int digit = base62Digit(value);
+            value = base62Quotient(value);
+            dst.put(i, (byte) BASE62_ALPHABET[digit]);
+        }
+        dst.position(offset + BASE62_LENGTH);
+    }
+
+    /**
+     * 解析base62编码
+     * @param src 源字符序列
+     * @param offset 起始下标
+     * @return 无符号64位整数
+     */
+    public static long decodeBase62(CharSequence src, int offset) {
+
+        checkRange(src.length(), offset, BASE62_LENGTH);
+        long value = 0L;
+        for (int i = offset; i < offset + BASE62_LENGTH; i++) {
+            value = base62Accumulate(value, src.charAt(i));
+        }
+        return value;
+    }
+
+    /**
+     * 解析base62编码
+     * @param src 源数组
+     * @param offset 起始下标
+     * @return 无符号64位整数
+     */
+    public static long decodeBase62(char[] src, int offset) {
+
+        checkRange(src.length, offset, BASE62_LENGTH);
+        long value = 0L;
+        for (int i = offset; i < offset + BASE62_LENGTH; i++) {
+            value = base62Accumulate(value, src[i]);
+        }
+        return value;
+    }
+
+    /**
+     * 从ByteBuffer当前position解析base62编码(ASCII)
+     * @param src 源缓冲区
+     * @return 无符号64位整数
+     */
+    public static long decodeBase62(ByteBuffer src) {
+
+        checkRange(src.limit(), src.position(), BASE62_LENGTH);
+        long value = 0L;
+        for (int i = 0; i < BASE62_LENGTH; i++) {
+            value = base62Accumulate(value, (char) (src.get() & 0xFF));
+        }
+        return value;
+    }
+
+    /**
+     * Crockford base32编码写入char数组
+     * @param value 无符号64位整数
+     * @param dst 目标数组
+     * @param offset 起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int encodeBase32(long value, char[] dst, int offset) {
+
+        checkRange(dst.length, offset, BASE32_LENGTH);
+        for (int i = offset + BASE32_LENGTH - 1; i >= offset; i--) {
+            dst[i] = BASE32_ALPHABET[(int) (value & BASE32_MASK)];
+            value >>>= BASE32_SHIFT;
+        }
+        return offset + BASE32_LENGTH;
+    }
+
+    /**
+     * Crockford base32编码写入ByteBuffer(ASCII)，从当前position开始写入
+     * @param value 无符号64位整数
+     * @param dst 目标缓冲区
+     */
+    public static void encodeBase32(long value, ByteBuffer dst) {
+
+        int offset = dst.position();
+        checkRange(dst.limit(), offset, BASE32_LENGTH);
+        for (int i = offset + BASE32_LENGTH - 1; i >= offset; i--) {
+            dst.put(i, (byte) BASE32_ALPHABET[(int) (value & BASE32_MASK)]);
+            value >>>= BASE32_SHIFT;
+        }
+        dst.position(offset + BASE32_LENGTH);
+    }
+
+    /**
+     * 解析Crockford base32编码，不区分大小写
+     * @param src 源字符序列
+     * @param offset 起始下标
+     * @return 无符号64位整数
+     */
+    public static long decodeBase32(CharSequence src, int offset) {
+
+        checkRange(src.length(), offset, BASE32_LENGTH);
+        long value = 0L;
+        for (int i = offset; i < offset + BASE32_LENGTH; i++) {
+            value = base32Accumulate(value, src.charAt(i), i == offset);
+        }
+        return value;
+    }
+
+    /**
+     * 解析Crockford base32编码，不区分大小写
+     * @param src 源数组
+     * @param offset 起始下标
+     * @return 无符号64位整数
+     */
+    public static long decodeBase32(char[] src, int offset) {
+
+        checkRange(src.length, offset, BASE32_LENGTH);
+        long value = 0L;
+        for (int i = offset; i < offset + BASE32_LENGTH; i++) {
+            value = base32Accumulate(value, src[i], i == offset);
+        }
+        return value;
+    }
+
+    /**
+     * 从ByteBuffer当前position解析Crockford base32编码(ASCII)，不区分大小写
+     * @param src 源缓冲区
+     * @return 无符号64位整数
+     */
+    public static long decodeBase32(ByteBuffer src) {
+
+        checkRange(src.limit(), src.position(), BASE32_LENGTH);
+        long value = 0L;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            value = base32Accumulate(value, (char) (src.get() & 0xFF), i == 0);
+        }
+        return value;
+    }
+
+    /**
+     * base62编码为字符串
+     * @param value 无符号64位整数
+     * @return 定长11位字符串
+     */
+    public static String toBase62String(long value) {
+
+        char[] chars = new char[BASE62_LENGTH];
+        encodeBase62(value, chars, 0);
+        return new String(chars);
+    }
+
+    private static int base62Digit(long value) {
+
+        return (int) (value >= 0 ? value % BASE62 : Long.remainderUnsigned(value, BASE62));
+    }
+
+    private static long base62Quotient(long value) {
+
+        return value >= 0 ? value / BASE62 : Long.divideUnsigned(value, BASE62);
+    }
+
+    private static long base62Accumulate(long value, char c) {
+
+        int digit = c < BASE62_DIGITS.length ? BASE62_DIGITS[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException(String.format("Illegal base62 character: %s", c));
+        }
+        // 无符号溢出校验
+        if (Long.compareUnsigned(value, Long.divideUnsigned(-1L, BASE62)) > 0) {
+            throw new IllegalArgumentException("The base62 value is out of unsigned 64-bit range");
+        }
+        long shifted = value * BASE62;
+        long result = shifted + digit;
+        if (Long.compareUnsigned(result, shifted) < 0) {
+            throw new IllegalArgumentException("The base62 value is out of unsigned 64-bit range");
+        }
+        return result;
+    }
+
+    private static long base32Accumulate(long value, char c, boolean first) {
+
+        int digit = c < BASE32_DIGITS.length ? BASE32_DIGITS[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException(String.format("Illegal base32 character: %s", c));
+        }
+        // 首位只承载最高4位
+        if (first && digit > 15) {
+            throw new IllegalArgumentException("The base32 value is out of unsigned 64-bit range");
+        }
+        return (value << BASE32_SHIFT) | digit;
+    }
+
+    private static void checkRange(int length, int offset, int size) {
+
+        if (offset < 0 || offset > length - size) {
+            throw new IndexOutOfBoundsException(String.format("offset = %d, size = %d, length = %d", offset, size, length));
+        }
+    }
+
+}
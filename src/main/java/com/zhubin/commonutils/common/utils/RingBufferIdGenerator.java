@@ -0,0 +1,210 @@
+package com.zhubin.commonutils.common.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 环形缓冲区预生成雪花ID：后台填充线程批量生成ID写入环形队列，调用方取号只需一次序列抢占；
+ * 队列为空时降级为直接生成并计数。填充走 SnowflakeIdUtils.fill，持续超过每毫秒序列上限时按其时钟策略借用未来时间，
+ * 需要借用秒级时间时，将 SnowflakeIdUtils.setClockStrategy 的最大漂移设置为秒级或使用逻辑时钟
+ */
+@Slf4j
+public class RingBufferIdGenerator implements Closeable {
+
+    /**
+     * 默认缓冲区大小
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 默认剩余比例低于该值时唤醒填充线程
+     */
+    private static final double DEFAULT_PADDING_FACTOR = 0.5D;
+
+    /**
+     * 单次批量生成的最大数量
+     */
+    private static final int FILL_CHUNK_SIZE = 4096;
+
+    /**
+     * 填充线程空闲时的挂起时间
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    /**
+     * 落后告警日志的最小间隔，单位为毫秒
+     */
+    private static final long BEHIND_LOG_INTERVAL_MILLIS = 1000L;
+
+    private final AtomicLongArray slots;
+
+    private final int bufferSize;
+
+    private final long mask;
+
+    /**
+     * 剩余数量不高于该值时唤醒填充线程
+     */
+    private final long threshold;
+
+    /**
+     * 下一个待取的位置
+     */
+    private final PaddedAtomicLong head = new PaddedAtomicLong();
+
+    /**
+     * 下一个待填充的位置，小于该位置的槽位均已发布
+     */
+    private final PaddedAtomicLong tail = new PaddedAtomicLong();
+
+    /**
+     * 队列为空降级为直接生成的次数
+     */
+    private final LongAdder fallbackCount = new LongAdder();
+
+    private final Thread filler;
+
+    private volatile boolean running;
+
+    private volatile long lastBehindLogTime;
+
+    public RingBufferIdGenerator() {
+
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_PADDING_FACTOR);
+    }
+
+    /**
+     * @param bufferSize 缓冲区大小，必须是2的幂
+     * @param paddingFactor 剩余比例低于该值时唤醒填充线程，取值(0, 1)
+     */
+    public RingBufferIdGenerator(int bufferSize, double paddingFactor) {
+
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException(String.format("The bufferSize of ring buffer must be a power of 2, bufferSize = %d", bufferSize));
+        }
+        if (paddingFactor <= 0D || paddingFactor >= 1D) {
+            throw new IllegalArgumentException("The paddingFactor of ring buffer must be between 0 and 1");
+        }
+        this.slots = new AtomicLongArray(bufferSize);
+        this.bufferSize = bufferSize;
+        this.mask = bufferSize - 1L;
+        this.threshold = (long) (bufferSize * paddingFactor);
+        this.filler = new Thread(this::fillLoop, "ring-buffer-id-filler");
+        this.filler.setDaemon(true);
+    }
+
+    /**
+     * 启动填充线程
+     */
+    public void start() {
+
+        running = true;
+        filler.start();
+    }
+
+    /**
+     * 获取一个ID，队列为空时直接生成
+     * @return id
+     */
+    public long take() {
+
+        while (true) {
+            long current = head.get();
+            long published = tail.get();
+            if (current >= published) {
+                return fallback();
+            }
+            long id = slots.get((int) (current & mask));
+            // 读取在抢占之前：若该槽位已被覆盖，说明head已越过current，抢占必然失败
+            if (head.compareAndSet(current, current + 1)) {
+                if (published - current - 1 == threshold) {
+                    LockSupport.unpark(filler);
+                }
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @return 队列为空降级为直接生成的次数
+     */
+    public long getFallbackCount() {
+
+        return fallbackCount.sum();
+    }
+
+    /**
+     * @return 当前可取的ID数量
+     */
+    public long getRemaining() {
+
+        return Math.max(tail.get() - head.get(), 0L);
+    }
+
+    @Override
+    public void close() {
+
+        running = false;
+        LockSupport.unpark(filler);
+    }
+
+    private long fallback() {
+
+        fallbackCount.increment();
+        long now = System.currentTimeMillis();
+        if (running && now - lastBehindLogTime >= BEHIND_LOG_INTERVAL_MILLIS) {
+            lastBehindLogTime = now;
+            log.warn("Ring buffer id filler falls behind, fallback to direct generation, fallbackCount = {}", fallbackCount.sum());
+        }
+        return SnowflakeIdUtils.generatePrimitiveId();
+    }
+
+    private void fillLoop() {
+
+        long[] chunk = new long[Math.min(FILL_CHUNK_SIZE, bufferSize)];
+        while (running) {
+            try {
+                long published = tail.get();
+                long free = bufferSize - (published - head.get());
+                if (bufferSize - free > threshold) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                // 填满为止，每批写入后立即发布
+                while (free > 0 && running) {
+                    int count = (int) Math.min(free, chunk.length);
+                    SnowflakeIdUtils.fill(chunk, 0, count);
+                    for (int i = 0; i < count; i++) {
+                        slots.lazySet((int) ((published + i) & mask), chunk[i]);
+                    }
+                    published += count;
+                    tail.set(published);
+                    free = bufferSize - (published - head.get());
+                }
+            } catch (Exception e) {
+                log.error("Ring buffer id filler error, ", e);
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * 填充到独占缓存行的计数器，避免head与tail伪共享
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedAtomicLong extends AtomicLong {
+
+        private static final long serialVersionUID = 1L;
+
+        public volatile long p1, p2, p3, p4, p5, p6 = 7L;
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.zhubin.commonutils.common.utils;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 雪花算法ID的位划分：符号位(1) + 时间戳 + 数据中心ID + 机器ID + 毫秒内序列，合计64位
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class SnowflakeBitLayout {
+
+    /**
+     * 默认划分：41位时间戳，5位数据中心ID，5位机器ID，12位序列
+     */
+    public static final SnowflakeBitLayout DEFAULT = new SnowflakeBitLayout(41, 5, 5, 12);
+
+    /**
+     * 除符号位外可分配的总位数
+     */
+    private static final int TOTAL_BITS = 63;
+
+    /**
+     * 时间戳所占的位数
+     */
+    private final int timestampBits;
+
+    /**
+     * 数据标识id所占的位数
+     */
+    private final int dataCenterIdBits;
+
+    /**
+     * 机器id所占的位数
+     */
+    private final int workerIdBits;
+
+    /**
+     * 序列在id中占的位数
+     */
+    private final int sequenceBits;
+
+    public SnowflakeBitLayout(int timestampBits, int dataCenterIdBits, int workerIdBits, int sequenceBits) {
+
+        if (timestampBits <= 0 || dataCenterIdBits < 0 || workerIdBits < 0 || sequenceBits <= 0) {
+            throw new IllegalArgumentException(String.format("Illegal snowflake bit layout, timestampBits = %d, dataCenterIdBits = %d, workerIdBits = %d, sequenceBits = %d",
+                    timestampBits, dataCenterIdBits, workerIdBits, sequenceBits));
+        }
+        if (timestampBits + dataCenterIdBits + workerIdBits + sequenceBits != TOTAL_BITS) {
+            throw new IllegalArgumentException(String.format("The sum of snowflake bits must be %d, but was %d",
+                    TOTAL_BITS, timestampBits + dataCenterIdBits + workerIdBits + sequenceBits));
+        }
+        this.timestampBits = timestampBits;
+        this.dataCenterIdBits = dataCenterIdBits;
+        this.workerIdBits = workerIdBits;
+        this.sequenceBits = sequenceBits;
+    }
+
+    /**
+     * @return 支持的最大机器id
+     */
+    public long maxWorkerId() {
+
+        return ~(-1L << workerIdBits);
+    }
+
+    /**
+     * @return 支持的最大数据标识id
+     */
+    public long maxDataCenterId() {
+
+        return ~(-1L << dataCenterIdBits);
+    }
+
+    /**
+     * @return 节点数量，即数据中心ID与机器ID组合后的取值个数
+     */
+    public long nodeCount() {
+
+        return 1L << (dataCenterIdBits + workerIdBits);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.zhubin.commonutils.common.utils;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 雪花算法毫秒内序列溢出、时钟回拨时的处理策略，任何策略都不会抛出异常，也不会忙等占用CPU
+ */
+public enum SnowflakeClockStrategy {
+
+    /**
+     * 借用未来时间：序列溢出时直接使用下一毫秒，时钟回拨时沿用上次时间戳继续生成；
+     * 借用的时间超过最大漂移时，挂起线程等待真实时钟追上；时钟大幅回拨、需要等待超过最大漂移时不再挂起，按逻辑时钟推进
+     */
+    BORROW,
+
+    /**
+     * 挂起等待：序列溢出时挂起线程到下一毫秒；时钟回拨在最大漂移内时挂起等待时钟追上，
+     * 超过最大漂移时沿用上次时间戳继续生成，序列溢出时按逻辑时钟推进，挂起时长不超过最大漂移
+     */
+    PARK,
+
+    /**
+     * 逻辑时钟：时间戳只增不减，序列溢出时逻辑时钟直接进位，不受最大漂移限制，永不等待
+     */
+    LOGICAL
+
+}
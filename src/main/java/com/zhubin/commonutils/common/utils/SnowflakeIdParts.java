@@ -0,0 +1,39 @@
+package com.zhubin.commonutils.common.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 雪花算法ID解析结果
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@AllArgsConstructor
+public final class SnowflakeIdParts {
+
+    /**
+     * 生成时间戳，单位为毫秒
+     */
+    private final long timestamp;
+
+    /**
+     * 数据中心ID
+     */
+    private final long dataCenterId;
+
+    /**
+     * 机器ID
+     */
+    private final long workerId;
+
+    /**
+     * 毫秒内序列
+     */
+    private final long sequence;
+
+}
@@ -8,6 +8,10 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 /**
  * @author zhubin
@@ -19,66 +23,75 @@ public class SnowflakeIdUtils {
     /**
      * 开始时间截
      */
-    private final long START_TIME = 1572525218655L;
+    private static final long START_TIME = 1572525218655L;
 
     /**
-     * 机器id所占的位数
+     * 默认最大漂移，单位为毫秒
      */
-    private final long WORKER_ID_BITS = 5L;
+    private static final long DEFAULT_MAX_DRIFT_MILLIS = 1000L;
 
     /**
-     * 数据标识id所占的位数
+     * 位划分
      */
-    private final long DATA_CENTER_ID_BITS = 5L;
+    private final SnowflakeBitLayout layout;
 
     /**
-     * 支持的最大机器id，结果是31 (这个移位算法可以很快的计算出几位二进制数所能表示的最大十进制数)
+     * 支持的最大机器id，默认划分下结果是31 (这个移位算法可以很快的计算出几位二进制数所能表示的最大十进制数)
      */
-    private final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+    private final long MAX_WORKER_ID;
 
     /**
-     * 支持的最大数据标识id，结果是31
+     * 支持的最大数据标识id，默认划分下结果是31
      */
-    private final long MAX_DATA_CENTER_ID = ~(-1L << DATA_CENTER_ID_BITS);
+    private final long MAX_DATA_CENTER_ID;
 
     /**
-     * 序列在id中占的位数
+     * 机器ID向左移的位数，默认划分下为12
      */
-    private final long SEQUENCE_BITS = 12L;
+    private final long WORKER_ID_SHIFT;
 
     /**
-     * 机器ID向左移12位
+     * 数据标识id向左移的位数，默认划分下为17(12+5)
      */
-    private final long WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private final long DATA_CENTER_ID_SHIFT;
 
     /**
-     * 数据标识id向左移17位(12+5)
+     * 时间截向左移的位数，默认划分下为22(5+5+12)
      */
-    private final long DATA_CENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+    private final long TIMESTAMP_LEFT_SHIFT;
 
     /**
-     * 时间截向左移22位(5+5+12)
+     * 生成序列的掩码，默认划分下为4095 (0b111111111111=0xfff=4095)
      */
-    private final long TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATA_CENTER_ID_BITS;
+    private final long SEQUENCE_MASK;
 
     /**
-     * 生成序列的掩码，这里为4095 (0b111111111111=0xfff=4095)
+     * 时间戳部分可表示的最大值(相对开始时间截)，默认划分下约69年
      */
-    private final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+    private final long MAX_TIMESTAMP_DELTA;
 
+    /**
+     * 工作机器ID(默认划分下0~31)
+     */
+    private final long workerId;
+
+    /**
+     * 数据中心ID(默认划分下0~31)
+     */
+    private final long dataCenterId;
 
     /**
-     * 工作机器ID(0~31)
+     * 节点ID是否来自租约，是则租约到期后拒绝生成
      */
-    private long workerId;
+    private final boolean leased;
 
     /**
-     * 数据中心ID(0~31)
+     * 租约在本地的到期时间(System.nanoTime)，不晚于协调中心中的到期时间
      */
-    private long dataCenterId;
+    private volatile long leaseExpireNanos;
 
     /**
-     * 毫秒内序列(0~4095)
+     * 毫秒内序列(默认划分下0~4095)
      */
     private long sequence = 0L;
 
@@ -87,11 +100,60 @@ public class SnowflakeIdUtils {
      */
     private long lastTimestamp = -1L;
 
-    private static SnowflakeIdUtils idWorker;
+    /**
+     * 上次读取到的真实时钟，用于区分时钟回拨与借用未来时间
+     */
+    private long lastClockTime = -1L;
 
-    static {
-        idWorker = new SnowflakeIdUtils(getWorkId(), getDataCenterId());
-    }
+    /**
+     * 是否已被替换：替换时状态已移交给新实例，仍持有旧实例的调用改由新实例生成，避免同一节点ID下两个实例各自生成重复ID
+     */
+    private boolean retired;
+
+    /**
+     * 序列溢出、时钟回拨时的处理策略
+     */
+    private static volatile SnowflakeClockStrategy clockStrategy = SnowflakeClockStrategy.BORROW;
+
+    /**
+     * 允许借用未来时间或挂起等待时钟回拨的最大漂移，单位为毫秒
+     */
+    private static volatile long maxDriftMillis = DEFAULT_MAX_DRIFT_MILLIS;
+
+    /**
+     * 毫秒内序列溢出次数
+     */
+    private static final AtomicLong overflowCount = new AtomicLong();
+
+    /**
+     * 序列溢出后推进到真实时钟之后的次数，每次借用一个未来毫秒
+     */
+    private static final AtomicLong borrowCount = new AtomicLong();
+
+    /**
+     * 时钟回拨次数
+     */
+    private static final AtomicLong regressionCount = new AtomicLong();
+
+    /**
+     * 时钟，仅测试时替换
+     */
+    private static volatile LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * 首次使用时才初始化，避免类加载时解析本机地址阻塞启动
+     */
+    private static volatile SnowflakeIdUtils idWorker;
+
+    /**
+     * 首次使用时初始化所采用的位划分
+     */
+    private static volatile SnowflakeBitLayout defaultLayout = SnowflakeBitLayout.DEFAULT;
+
+    /**
+     * 是否要求节点ID来自租约，开启后不再按本机地址计算节点ID，获取到租约前拒绝生成
+     */
+    private static volatile boolean leaseRequired;
 
     /**
      * 静态工具类-生成分布式全局唯一id
@@ -99,7 +161,16 @@ public class SnowflakeIdUtils {
      */
     public static Long generateId() {
 
-        return idWorker.nextId();
+        return idWorker().nextId();
+    }
+
+    /**
+     * 生成分布式全局唯一id，不装箱
+     * @return id
+     */
+    static long generatePrimitiveId() {
+
+        return idWorker().nextId();
     }
 
     /**
@@ -111,13 +182,387 @@ public class SnowflakeIdUtils {
         return String.valueOf(generateId());
     }
 
+    /**
+     * 静态工具类-生成分布式全局唯一id，base62定长11位编码，比十进制字符串更短
+     * @return id
+     */
+    public static String generatedCompactStringId() {
+
+        return IdCodec.toBase62String(generatePrimitiveId());
+    }
+
+    /**
+     * 静态工具类-生成分布式全局唯一id，base62编码直接写入调用方数组
+     * @param dst 目标数组
+     * @param offset 起始下标
+     * @return 写入后的下一个下标
+     */
+    public static int generateCompactId(char[] dst, int offset) {
+
+        return IdCodec.encodeBase62(generatePrimitiveId(), dst, offset);
+    }
+
+    /**
+     * 静态工具类-批量生成分布式全局唯一id
+     * @param n 生成数量
+     * @return id数组
+     */
+    public static long[] generateIds(int n) {
+
+        if (n < 0) {
+            throw new IllegalArgumentException(String.format("The count of ids can't be less than 0, n = %d", n));
+        }
+        long[] ids = new long[n];
+        idWorker().nextIds(ids, 0, n);
+        return ids;
+    }
+
+    /**
+     * 静态工具类-批量生成分布式全局唯一id，直接写入调用方数组
+     * @param dst 目标数组
+     */
+    public static void fill(long[] dst) {
+
+        idWorker().nextIds(dst, 0, dst.length);
+    }
+
+    /**
+     * 静态工具类-批量生成分布式全局唯一id，直接写入调用方数组的指定区间
+     * @param dst 目标数组
+     * @param offset 起始下标
+     * @param length 生成数量
+     */
+    public static void fill(long[] dst, int offset, int length) {
+
+        if (offset < 0 || length < 0 || offset > dst.length - length) {
+            throw new IndexOutOfBoundsException(String.format("offset = %d, length = %d, array length = %d", offset, length, dst.length));
+        }
+        idWorker().nextIds(dst, offset, length);
+    }
+
+    /**
+     * 设置序列溢出、时钟回拨时的处理策略
+     * @param clockStrategy 处理策略
+     * @param maxDriftMillis 允许借用未来时间或挂起等待时钟回拨的最大漂移，单位为毫秒
+     */
+    public static void setClockStrategy(SnowflakeClockStrategy clockStrategy, long maxDriftMillis) {
+
+        if (clockStrategy == null) {
+            throw new IllegalArgumentException("The clockStrategy of snowflake cannot be null");
+        }
+        if (maxDriftMillis < 0) {
+            throw new IllegalArgumentException("The maxDriftMillis of snowflake can't be less than 0");
+        }
+        SnowflakeIdUtils.clockStrategy = clockStrategy;
+        SnowflakeIdUtils.maxDriftMillis = maxDriftMillis;
+    }
+
+    /**
+     * @return 毫秒内序列溢出次数
+     */
+    public static long getOverflowCount() {
+
+        return overflowCount.get();
+    }
+
+    /**
+     * @return 序列溢出后推进到真实时钟之后的次数
+     */
+    public static long getBorrowCount() {
+
+        return borrowCount.get();
+    }
+
+    /**
+     * @return 当前借用的未来毫秒数，即最近生成ID的时间戳领先真实时钟的毫秒数
+     */
+    public static long getBorrowedAheadMillis() {
+
+        SnowflakeIdUtils worker = idWorker;
+        if (worker == null) {
+            return 0L;
+        }
+        synchronized (worker) {
+            return Math.max(worker.lastTimestamp - worker.timeGen(), 0L);
+        }
+    }
+
+    /**
+     * @return 时钟回拨次数
+     */
+    public static long getRegressionCount() {
+
+        return regressionCount.get();
+    }
+
+    /**
+     * 设置位划分，未分配机器ID时按本机地址计算；已初始化时会以新的划分重建。
+     * 节点ID来自租约时位划分由租约决定，不能再调用该方法
+     * @param layout 位划分
+     */
+    public static void configure(SnowflakeBitLayout layout) {
+
+        if (layout == null) {
+            throw new IllegalArgumentException("The layout of snowflake cannot be null");
+        }
+        synchronized (SnowflakeIdUtils.class) {
+            if (leaseRequired) {
+                throw new IllegalStateException("The layout of snowflake is decided by the worker id lease");
+            }
+            defaultLayout = layout;
+            if (idWorker != null) {
+                register(layout, getDataCenterId(layout), getWorkId(layout));
+            }
+        }
+    }
+
+    /**
+     * 注册数据中心ID与机器ID，如从协调中心租约获得；替换后沿用原有的时间戳，不会回退。
+     * 位划分不变时ID保持单调递增；位划分改变时时间戳的移位随之改变，新旧ID之间不保证大小顺序
+     * @param layout 位划分
+     * @param dataCenterId 数据中心ID
+     * @param workerId 机器ID
+     */
+    public static void register(SnowflakeBitLayout layout, long dataCenterId, long workerId) {
+
+        install(new SnowflakeIdUtils(workerId, dataCenterId, layout, false, 0L));
+    }
+
+    /**
+     * 要求节点ID来自租约：获取到租约前拒绝生成，不再按本机地址计算节点ID；已按本机地址初始化的不再使用
+     * @param layout 位划分
+     */
+    public static void requireLease(SnowflakeBitLayout layout) {
+
+        if (layout == null) {
+            throw new IllegalArgumentException("The layout of snowflake cannot be null");
+        }
+        synchronized (SnowflakeIdUtils.class) {
+            leaseRequired = true;
+            defaultLayout = layout;
+            SnowflakeIdUtils previous = idWorker;
+            if (previous != null && !previous.leased) {
+                // 保留时间戳，以已到期的租约替换
+                install(new SnowflakeIdUtils(previous.workerId, previous.dataCenterId, previous.layout, true, System.nanoTime()));
+            }
+        }
+    }
+
+    /**
+     * 注册从租约获得的数据中心ID与机器ID，本地到期后拒绝生成，直到续约或重新注册
+     * @param layout 位划分
+     * @param dataCenterId 数据中心ID
+     * @param workerId 机器ID
+     * @param expireNanos 租约在本地的到期时间(System.nanoTime)，应以发起租约命令前的时间计算
+     */
+    public static void registerLease(SnowflakeBitLayout layout, long dataCenterId, long workerId, long expireNanos) {
+
+        install(new SnowflakeIdUtils(workerId, dataCenterId, layout, true, expireNanos));
+    }
+
+    /**
+     * 续约当前租约
+     * @param dataCenterId 数据中心ID
+     * @param workerId 机器ID
+     * @param expireNanos 租约在本地的新到期时间(System.nanoTime)
+     * @return 当前节点ID与租约一致时返回true
+     */
+    public static boolean renewLease(long dataCenterId, long workerId, long expireNanos) {
+
+        SnowflakeIdUtils worker = idWorker;
+        if (worker == null || !worker.leased || worker.dataCenterId != dataCenterId || worker.workerId != workerId) {
+            return false;
+        }
+        worker.leaseExpireNanos = expireNanos;
+        return true;
+    }
+
+    /**
+     * 租约丢失或主动释放时立即停止生成
+     */
+    public static void expireLease() {
+
+        SnowflakeIdUtils worker = idWorker;
+        if (worker != null && worker.leased) {
+            worker.leaseExpireNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 替换实例：持有旧实例的锁移交状态并发布新实例后再将旧实例标记为已替换，之后进入旧实例的调用都改由新实例生成
+     */
+    private static void install(SnowflakeIdUtils worker) {
+
+        synchronized (SnowflakeIdUtils.class) {
+            defaultLayout = worker.layout;
+            SnowflakeIdUtils previous = idWorker;
+            if (previous == null) {
+                idWorker = worker;
+                return;
+            }
+            synchronized (previous) {
+                worker.lastTimestamp = previous.lastTimestamp;
+                worker.lastClockTime = previous.lastClockTime;
+                worker.sequence = previous.sequence & worker.SEQUENCE_MASK;
+                idWorker = worker;
+                previous.retired = true;
+            }
+        }
+    }
+
+    /**
+     * 替换时钟，仅用于测试
+     * @param clock 返回毫秒时间戳的时钟
+     */
+    static void setClock(LongSupplier clock) {
+
+        SnowflakeIdUtils.clock = clock;
+    }
+
+    /**
+     * @return 当前使用的位划分
+     */
+    public static SnowflakeBitLayout getLayout() {
+
+        SnowflakeIdUtils worker = idWorker;
+        return worker != null ? worker.layout : defaultLayout;
+    }
+
+    /**
+     * 按当前位划分解析ID
+     * @param id 雪花算法ID
+     * @return 解析结果
+     */
+    public static SnowflakeIdParts parse(long id) {
+
+        SnowflakeBitLayout layout = getLayout();
+        return new SnowflakeIdParts(extractTimestamp(id, layout), extractDataCenterId(id, layout),
+                extractWorkerId(id, layout), extractSequence(id, layout));
+    }
+
+    /**
+     * @param id 雪花算法ID
+     * @return ID的生成时间戳，单位为毫秒
+     */
+    public static long extractTimestamp(long id) {
+
+        return extractTimestamp(id, getLayout());
+    }
+
+    /**
+     * @param id 雪花算法ID
+     * @return ID的数据中心ID
+     */
+    public static long extractDataCenterId(long id) {
+
+        return extractDataCenterId(id, getLayout());
+    }
+
+    /**
+     * @param id 雪花算法ID
+     * @return ID的机器ID
+     */
+    public static long extractWorkerId(long id) {
+
+        return extractWorkerId(id, getLayout());
+    }
+
+    /**
+     * @param id 雪花算法ID
+     * @return ID的毫秒内序列
+     */
+    public static long extractSequence(long id) {
+
+        return extractSequence(id, getLayout());
+    }
+
+    /**
+     * 时间范围裁剪：该时间戳内可能生成的最小ID
+     * @param timestamp 时间戳，单位为毫秒
+     * @return 最小ID
+     */
+    public static long minIdOf(long timestamp) {
+
+        SnowflakeBitLayout layout = getLayout();
+        return Math.max(timestamp - START_TIME, 0L) << timestampShift(layout);
+    }
+
+    /**
+     * 时间范围裁剪：该时间戳内可能生成的最大ID
+     * @param timestamp 时间戳，单位为毫秒
+     * @return 最大ID
+     */
+    public static long maxIdOf(long timestamp) {
+
+        SnowflakeBitLayout layout = getLayout();
+        return minIdOf(timestamp) | ~(-1L << timestampShift(layout));
+    }
+
+    private static long extractTimestamp(long id, SnowflakeBitLayout layout) {
+
+        return (id >>> timestampShift(layout)) + START_TIME;
+    }
+
+    private static long extractDataCenterId(long id, SnowflakeBitLayout layout) {
+
+        return (id >>> (layout.getSequenceBits() + layout.getWorkerIdBits())) & layout.maxDataCenterId();
+    }
+
+    private static long extractWorkerId(long id, SnowflakeBitLayout layout) {
+
+        return (id >>> layout.getSequenceBits()) & layout.maxWorkerId();
+    }
+
+    private static long extractSequence(long id, SnowflakeBitLayout layout) {
+
+        return id & ~(-1L << layout.getSequenceBits());
+    }
+
+    private static int timestampShift(SnowflakeBitLayout layout) {
+
+        return layout.getSequenceBits() + layout.getWorkerIdBits() + layout.getDataCenterIdBits();
+    }
+
+    private static SnowflakeIdUtils idWorker() {
+
+        SnowflakeIdUtils worker = idWorker;
+        if (worker == null) {
+            synchronized (SnowflakeIdUtils.class) {
+                worker = idWorker;
+                if (worker == null) {
+                    if (leaseRequired) {
+                        throw new IllegalStateException("Snowflake worker id lease has not been acquired yet");
+                    }
+                    SnowflakeBitLayout layout = defaultLayout;
+                    worker = new SnowflakeIdUtils(getWorkId(layout), getDataCenterId(layout), layout, false, 0L);
+                    idWorker = worker;
+                }
+            }
+        }
+        return worker;
+    }
+
     /**
      * 构造函数
      *
-     * @param workerId     工作ID (0~31)
-     * @param dataCenterId 数据中心ID (0~31)
+     * @param workerId     工作ID (默认划分下0~31)
+     * @param dataCenterId 数据中心ID (默认划分下0~31)
+     * @param layout       位划分
+     * @param leased       节点ID是否来自租约
+     * @param leaseExpireNanos 租约在本地的到期时间(System.nanoTime)
      */
-    private SnowflakeIdUtils(long workerId, long dataCenterId) {
+    private SnowflakeIdUtils(long workerId, long dataCenterId, SnowflakeBitLayout layout, boolean leased, long leaseExpireNanos) {
+        this.layout = layout;
+        this.MAX_WORKER_ID = layout.maxWorkerId();
+        this.MAX_DATA_CENTER_ID = layout.maxDataCenterId();
+        this.WORKER_ID_SHIFT = layout.getSequenceBits();
+        this.DATA_CENTER_ID_SHIFT = layout.getSequenceBits() + layout.getWorkerIdBits();
+        this.TIMESTAMP_LEFT_SHIFT = layout.getSequenceBits() + layout.getWorkerIdBits() + layout.getDataCenterIdBits();
+        this.SEQUENCE_MASK = ~(-1L << layout.getSequenceBits());
+        this.MAX_TIMESTAMP_DELTA = ~(-1L << layout.getTimestampBits());
+        if (timeGen() - START_TIME > MAX_TIMESTAMP_DELTA) {
+            throw new IllegalArgumentException(String.format("timestampBits %d can't hold the current time", layout.getTimestampBits()));
+        }
         if (workerId > MAX_WORKER_ID || workerId < 0) {
             throw new IllegalArgumentException(String.format("workerId can't be greater than %d or less than 0", MAX_WORKER_ID));
         }
@@ -126,20 +571,90 @@ public class SnowflakeIdUtils {
         }
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
+        this.leased = leased;
+        this.leaseExpireNanos = leaseExpireNanos;
     }
 
     /**
-     * 获得下一个ID (该方法是线程安全的)
+     * 获得下一个ID (该方法是线程安全的)，已被替换时由当前实例生成
      *
      * @return SnowflakeId
      */
-    private synchronized long nextId() {
+    private long nextId() {
+        synchronized (this) {
+            if (!retired) {
+                checkLease();
+                long timestamp = nextTimestamp();
+
+                //移位并通过或运算拼到一起组成64位的ID
+                return ((timestamp - START_TIME) << TIMESTAMP_LEFT_SHIFT)
+                        | (dataCenterId << DATA_CENTER_ID_SHIFT)
+                        | (workerId << WORKER_ID_SHIFT)
+                        | sequence;
+            }
+        }
+        return idWorker().nextId();
+    }
+
+    /**
+     * 批量获得ID (该方法是线程安全的)，一次加锁内按毫秒整段预留序列，每个毫秒只读取一次时钟；已被替换时由当前实例生成
+     *
+     * @param dst    目标数组
+     * @param offset 起始下标
+     * @param length 生成数量
+     */
+    private void nextIds(long[] dst, int offset, int length) {
+        synchronized (this) {
+            if (!retired) {
+                checkLease();
+                int index = offset;
+                int end = offset + length;
+                while (index < end) {
+                    long timestamp = nextTimestamp();
+
+                    // 当前毫秒剩余可用的序列整段写入
+                    long prefix = ((timestamp - START_TIME) << TIMESTAMP_LEFT_SHIFT)
+                            | (dataCenterId << DATA_CENTER_ID_SHIFT)
+                            | (workerId << WORKER_ID_SHIFT);
+                    int count = (int) Math.min(end - index, SEQUENCE_MASK - sequence + 1);
+                    for (int i = 0; i < count; i++) {
+                        dst[index++] = prefix | (sequence + i);
+                    }
+                    sequence += count - 1;
+                }
+                return;
+            }
+        }
+        idWorker().nextIds(dst, offset, length);
+    }
+
+    /**
+     * 租约到期后拒绝生成：其他节点可能已占用同一节点ID，继续生成会产生重复ID
+     */
+    private void checkLease() {
+        if (leased && System.nanoTime() - leaseExpireNanos >= 0) {
+            throw new IllegalStateException(String.format("Snowflake worker id lease is not held, dataCenterId = %d, workerId = %d", dataCenterId, workerId));
+        }
+    }
+
+    /**
+     * 推进毫秒内序列，并返回本次生成ID使用的时间戳，需在持有锁时调用
+     *
+     * @return 本次使用的时间戳
+     */
+    private long nextTimestamp() {
         long timestamp = timeGen();
 
-        //如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过这个时候应当抛出异常
+        //当前时间小于上一次ID生成的时间戳：时钟回拨，或者之前借用了未来时间
         if (timestamp < lastTimestamp) {
-            throw new RuntimeException(
-                    String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
+            // 与上次读取的真实时钟比较，回拨后时钟继续前进期间不重复统计
+            if (timestamp < lastClockTime) {
+                regressionCount.incrementAndGet();
+            }
+            lastClockTime = timestamp;
+            timestamp = behindLastTimestamp(timestamp);
+        } else {
+            lastClockTime = timestamp;
         }
 
         //如果是同一时间生成的，则进行毫秒内序列
@@ -147,8 +662,8 @@ public class SnowflakeIdUtils {
             sequence = (sequence + 1) & SEQUENCE_MASK;
             //毫秒内序列溢出
             if (sequence == 0) {
-                //阻塞到下一个毫秒,获得新的时间戳
-                timestamp = tilNextMillis(lastTimestamp);
+                overflowCount.incrementAndGet();
+                timestamp = sequenceOverflow(lastTimestamp);
             }
         }
         //时间戳改变，毫秒内序列重置
@@ -156,25 +671,75 @@ public class SnowflakeIdUtils {
             sequence = 0L;
         }
 
+        //时间戳超出位划分可表示的范围，继续生成会溢出到符号位或节点ID
+        if (timestamp - START_TIME > MAX_TIMESTAMP_DELTA) {
+            throw new IllegalStateException(String.format("Snowflake timestamp overflows %d bits, timestamp = %d", layout.getTimestampBits(), timestamp));
+        }
+
         //上次生成ID的时间截
         lastTimestamp = timestamp;
+        return timestamp;
+    }
 
-        //移位并通过或运算拼到一起组成64位的ID
-        return ((timestamp - START_TIME) << TIMESTAMP_LEFT_SHIFT)
-                | (dataCenterId << DATA_CENTER_ID_SHIFT)
-                | (workerId << WORKER_ID_SHIFT)
-                | sequence;
+    /**
+     * 当前时间落后于上次生成ID的时间戳时，按策略得到可用的时间戳，返回值不小于上次时间戳
+     *
+     * @param timestamp 当前时间
+     * @return 可用的时间戳
+     */
+    private long behindLastTimestamp(long timestamp) {
+        if (clockStrategy == SnowflakeClockStrategy.PARK) {
+            return Math.max(parkWithinDrift(lastTimestamp), lastTimestamp);
+        }
+        // 沿用上次的时间戳继续生成，由序列保证唯一
+        return lastTimestamp;
     }
 
     /**
-     * 阻塞到下一个毫秒，直到获得新的时间戳
+     * 毫秒内序列溢出时，按策略得到下一个时间戳，返回值大于上次时间戳
      *
      * @param lastTimestamp 上次生成ID的时间截
-     * @return 当前时间戳
+     * @return 下一个时间戳
      */
-    private long tilNextMillis(long lastTimestamp) {
+    private long sequenceOverflow(long lastTimestamp) {
+        long next = lastTimestamp + 1;
+        switch (clockStrategy) {
+            case PARK:
+                long timestamp = parkWithinDrift(next);
+                if (timestamp >= next) {
+                    return timestamp;
+                }
+                break;
+            case BORROW:
+                // 借用超过最大漂移时，挂起等待真实时钟追上
+                parkWithinDrift(next - maxDriftMillis);
+                break;
+            default:
+                break;
+        }
+        // 未能等到目标时间(如时钟大幅回拨)时按逻辑时钟推进
+        long now = timeGen();
+        if (next > now) {
+            borrowCount.incrementAndGet();
+        }
+        return next;
+    }
+
+    /**
+     * 挂起线程直到时钟到达目标时间，替代忙等；最多挂起最大漂移的时长，
+     * 需要等待更久时(如时钟大幅回拨)不再挂起，避免持有锁阻塞所有调用方
+     *
+     * @param target 目标时间(毫秒)
+     * @return 当前时间戳，未到达目标时间时小于target
+     */
+    private long parkWithinDrift(long target) {
         long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
+        if (target - timestamp > maxDriftMillis) {
+            return timestamp;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDriftMillis);
+        while (timestamp < target && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(target - timestamp));
             timestamp = timeGen();
         }
         return timestamp;
@@ -186,10 +751,10 @@ public class SnowflakeIdUtils {
      * @return 当前时间(毫秒)
      */
     private long timeGen() {
-        return System.currentTimeMillis();
+        return clock.getAsLong();
     }
 
-    private static Long getWorkId() {
+    private static Long getWorkId(SnowflakeBitLayout layout) {
         try {
             String hostAddress = Inet4Address.getLocalHost().getHostAddress();
             int[] ints = StringUtils.toCodePoints(hostAddress);
@@ -197,14 +762,14 @@ public class SnowflakeIdUtils {
             for (int b : ints) {
                 sums += b;
             }
-            return (long) (sums % 32);
+            return sums % (layout.maxWorkerId() + 1);
         } catch (Exception e) {
             // 如果获取失败，则使用随机数备用
-            return RandomUtils.nextLong(0, 31);
+            return RandomUtils.nextLong(0, layout.maxWorkerId() + 1);
         }
     }
 
-    private static Long getDataCenterId() {
+    private static Long getDataCenterId(SnowflakeBitLayout layout) {
         int sums;
         try {
             String hostName = InetAddress.getLocalHost().getHostName();
@@ -213,7 +778,7 @@ public class SnowflakeIdUtils {
             //发生异常，随机生成uuid
             sums = getIntAmount(null);
         }
-        return (long) (sums % 32);
+        return sums % (layout.maxDataCenterId() + 1);
 
     }
 
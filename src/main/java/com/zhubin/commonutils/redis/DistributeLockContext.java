@@ -1,9 +1,11 @@
 package com.zhubin.commonutils.redis;
 
-import com.zhubin.commonutils.common.utils.SnowflakeIdUtils;
+import com.zhubin.commonutils.common.utils.DeadlineContext;
 import com.zhubin.commonutils.redis.exception.DistributeLockTimeoutException;
 import com.zhubin.commonutils.redis.function.ConsumerNoParams;
 import com.zhubin.commonutils.redis.lock.LockAction;
+import com.zhubin.commonutils.redis.lock.LockKeyCodec;
+import com.zhubin.commonutils.redis.lock.LockSecretUtils;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -23,7 +25,7 @@ public class DistributeLockContext {
     /**
      * 默认获取锁失败的提示文案
      */
-    private static final String DEFAULT_EXCEPTION_MSG = "服务繁忙，请稍后再试";
+    static final String DEFAULT_EXCEPTION_MSG = "服务繁忙，请稍后再试";
 
     /**
      * 防呆最大自旋时间
@@ -35,11 +37,21 @@ public class DistributeLockContext {
      */
     private static final Long FOOL_PROOF_DEFAULT_WAITING_TIME = 300L;
 
+    /**
+     * 锁key编码，为null时原样使用
+     */
+    private static volatile LockKeyCodec keyCodec;
+
     /**
      * 锁的秘钥
      */
     private final String secret;
 
+    /**
+     * 实际写入的锁key，开启锁key编码时为编码后的key
+     */
+    private final String storedKey;
+
     /**
      * 锁的key
      */
@@ -94,6 +106,12 @@ public class DistributeLockContext {
     @Getter
     private Long spunTimes;
 
+    /**
+     * 截止时间，System.nanoTime() 时间点；为null时不限制，自旋等待不超过剩余时间，已过期时直接失败
+     */
+    @Getter
+    private final Long deadline;
+
     /**
      * 操作锁方法
      */
@@ -107,7 +125,7 @@ public class DistributeLockContext {
     public <T> T execute(Supplier<T> supplier) {
 
         if (!getGainLock()) {
-            this.gainLock = tryLock();
+            this.gainLock = !isDeadlineExceeded() && tryLock();
         }
         return supplyExecute(supplier);
     }
@@ -118,7 +136,7 @@ public class DistributeLockContext {
     public void execute(ConsumerNoParams consumer) {
 
         if (!getGainLock()) {
-            this.gainLock = tryLock();
+            this.gainLock = !isDeadlineExceeded() && tryLock();
         }
         runExecute(consumer);
     }
@@ -129,7 +147,7 @@ public class DistributeLockContext {
      */
     public boolean tryLock() {
 
-        this.gainLock = this.lockAction.tryLock(this.lockKey, this.secret, this.expireTime);
+        this.gainLock = this.lockAction.tryLock(this.storedKey, this.secret, this.expireTime);
         return this.gainLock;
     }
 
@@ -139,13 +157,13 @@ public class DistributeLockContext {
      */
     public boolean releaseLock() {
 
-        return this.lockAction.releaseLock(this.lockKey, this.secret);
+        return this.lockAction.releaseLock(this.storedKey, this.secret);
     }
 
     private <T> T supplyExecute(Supplier<T> supplier) {
 
         if (!this.gainLock) {
-            if (this.spinLock && this.spinTimes > 0) {
+            if (this.spinLock && this.spinTimes > 0 && !isDeadlineExceeded()) {
                 spin();
                 return supplyExecute(supplier);
             }
@@ -164,7 +182,7 @@ public class DistributeLockContext {
     private void runExecute(ConsumerNoParams consumer) {
 
         if (!this.gainLock) {
-            if (this.spinLock && this.spinTimes > 0) {
+            if (this.spinLock && this.spinTimes > 0 && !isDeadlineExceeded()) {
                 spin();
                 runExecute(consumer);
                 // 进入自旋执行完逻辑需要return退出
@@ -182,27 +200,43 @@ public class DistributeLockContext {
         }
     }
 
+    /**
+     * 构建锁对象，截止时间取当前线程 DeadlineContext 中的截止时间
+     */
     public static DistributeLockContext buildLockContext(String lockKey, Long expireTime, String exceptionMsg,
                                                          Long waitingTime, Boolean spinLock, Long maxWaitingTime,
                                                          LockAction lockAction) {
 
-        return new DistributeLockContext(lockKey, expireTime, exceptionMsg, waitingTime, spinLock, maxWaitingTime, lockAction);
+        return buildLockContext(lockKey, expireTime, exceptionMsg, waitingTime, spinLock, maxWaitingTime, lockAction, DeadlineContext.current());
+    }
+
+    /**
+     * 构建锁对象，显式指定截止时间
+     * @param deadline 截止时间，System.nanoTime() 时间点，为null时不限制
+     */
+    public static DistributeLockContext buildLockContext(String lockKey, Long expireTime, String exceptionMsg,
+                                                         Long waitingTime, Boolean spinLock, Long maxWaitingTime,
+                                                         LockAction lockAction, Long deadline) {
+
+        return new DistributeLockContext(lockKey, expireTime, exceptionMsg, waitingTime, spinLock, maxWaitingTime, lockAction, deadline);
     }
 
     private DistributeLockContext(String lockKey, Long expireTime, String exceptionMsg, Long waitingTime, Boolean spinLock,
-                                  Long maxWaitingTime, LockAction lockAction) {
+                                  Long maxWaitingTime, LockAction lockAction, Long deadline) {
 
         if (Objects.nonNull(expireTime) && expireTime <= 0L) {
             throw new IllegalArgumentException("The expireTime of distributeLock must be positive");
         }
 
         this.lockKey = lockKey;
-        // 雪花算法根据机器IP和机器名称生成全局唯一ID
-        this.secret = SnowflakeIdUtils.generatedStringId();
+        this.storedKey = encodeKey(lockKey);
+        // 秘钥只需唯一，不使用雪花ID，节点ID租约失效时仍可加锁
+        this.secret = LockSecretUtils.nextSecret();
         this.expireTime = expireTime;
         this.exceptionMsg = StringUtils.isBlank(exceptionMsg) ? DEFAULT_EXCEPTION_MSG : exceptionMsg;
         this.spinLock = spinLock;
         this.lockAction = lockAction;
+        this.deadline = deadline;
         if (this.spinLock) {
             if (Objects.nonNull(waitingTime) && waitingTime <= 0L) {
                 throw new IllegalArgumentException("The waitingTime of distributeLock must be positive");
@@ -224,13 +258,45 @@ public class DistributeLockContext {
     }
 
     /**
-     * 自旋，当超过最大自旋时间时结束
+     * 设置锁key编码，由 DistributeLockUtil 在启动时注入
+     * @param codec 锁key编码，为null时关闭
+     */
+    static void setKeyCodec(LockKeyCodec codec) {
+
+        keyCodec = codec;
+    }
+
+    /**
+     * @param lockKey 锁的key
+     * @return 实际写入的锁key
+     */
+    static String encodeKey(String lockKey) {
+
+        LockKeyCodec codec = keyCodec;
+        return codec == null || lockKey == null ? lockKey : codec.encode(lockKey);
+    }
+
+    /**
+     * 是否已超过截止时间
+     * @return 未设置截止时间时为false
+     */
+    public boolean isDeadlineExceeded() {
+
+        return Objects.nonNull(this.deadline) && this.deadline - System.nanoTime() <= 0L;
+    }
+
+    /**
+     * 自旋，当超过最大自旋时间时结束；单次等待不超过截止时间的剩余时间，等待后已到截止时间时不再尝试获取锁
      */
     private void spin() {
 
+        long sleepNanos = TimeUnit.MILLISECONDS.toNanos(this.waitingTime);
+        if (Objects.nonNull(this.deadline)) {
+            sleepNanos = Math.min(sleepNanos, this.deadline - System.nanoTime());
+        }
         // 抛出已知异常，打印日志
         try {
-            TimeUnit.MILLISECONDS.sleep(this.waitingTime);
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
         } catch (InterruptedException e) {
             log.error(String.format("Distribute lock sleep in spin exist error, key = %s, waitingTime= %s", this.lockKey, this.waitingTime), e);
             throw new DistributeLockTimeoutException(lockKey, expireTime, exceptionMsg, spinLock, waitingTime, maxWaitingTime);
@@ -238,7 +304,7 @@ public class DistributeLockContext {
         // 每次自旋，扣减一次自旋次数，已自旋次数+1
         --this.spinTimes;
         ++this.spunTimes;
-        this.gainLock = tryLock();
+        this.gainLock = !isDeadlineExceeded() && tryLock();
     }
 
 }
@@ -1,11 +1,18 @@
 package com.zhubin.commonutils.redis;
 
+import com.zhubin.commonutils.common.utils.DeadlineContext;
+import com.zhubin.commonutils.redis.exception.DistributeLockTimeoutException;
 import com.zhubin.commonutils.redis.function.ConsumerNoParams;
 import com.zhubin.commonutils.redis.lock.LockAction;
+import com.zhubin.commonutils.redis.lock.LockKeyCodec;
+import com.zhubin.commonutils.redis.lock.LockSecretUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
+import java.util.Collection;
+import java.util.TreeSet;
 import java.util.function.Supplier;
 
 /**
@@ -21,6 +28,7 @@ public class DistributeLockUtil implements ApplicationContextAware {
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
 
         lockAction = applicationContext.getBean(LockAction.class);
+        DistributeLockContext.setKeyCodec(applicationContext.getBeanProvider(LockKeyCodec.class).getIfAvailable());
     }
 
     /**
@@ -155,6 +163,67 @@ public class DistributeLockUtil implements ApplicationContextAware {
         return lockContext;
     }
 
+    /**
+     * 构建有返回值的多key排他锁，全部获取到后执行函数并释放；redis集群下按槽位分组并行加锁，
+     * 可使用 withHashTag 让同一聚合的key落在同一槽位
+     * @param supplier 有返回值的函数
+     * @param lockKeys 锁的key
+     * @param expireTime 锁的失效时间，单位为毫秒
+     * @param exceptionMsg 异常提示
+     * @param <T> 返回结果泛型
+     * @return 执行结果
+     */
+    public static <T> T supplyMultiLock(Supplier<T> supplier, Collection<String> lockKeys, Long expireTime, String exceptionMsg) {
+
+        if (lockKeys == null || lockKeys.isEmpty()) {
+            throw new IllegalArgumentException("The keys of multi distributeLock cannot be empty");
+        }
+        if (expireTime == null || expireTime <= 0L) {
+            throw new IllegalArgumentException("The expireTime of distributeLock must be positive");
+        }
+        TreeSet<String> keys = new TreeSet<>();
+        lockKeys.forEach(lockKey -> keys.add(DistributeLockContext.encodeKey(lockKey)));
+        String secret = LockSecretUtils.nextSecret();
+        if (DeadlineContext.isExpired() || !lockAction.tryLockAll(keys, secret, expireTime)) {
+            throw new DistributeLockTimeoutException(String.join(",", lockKeys), expireTime,
+                    StringUtils.isBlank(exceptionMsg) ? DistributeLockContext.DEFAULT_EXCEPTION_MSG : exceptionMsg, false, null, null);
+        }
+        try {
+            return supplier.get();
+        } finally {
+            lockAction.releaseAll(keys, secret);
+        }
+    }
+
+    /**
+     * 构建无返回值的多key排他锁，全部获取到后执行函数并释放
+     * @param consumer 消费函数
+     * @param lockKeys 锁的key
+     * @param expireTime 锁的失效时间，单位为毫秒
+     * @param exceptionMsg 异常提示
+     */
+    public static void runMultiLock(ConsumerNoParams consumer, Collection<String> lockKeys, Long expireTime, String exceptionMsg) {
+
+        supplyMultiLock(() -> {
+            consumer.exec();
+            return null;
+        }, lockKeys, expireTime, exceptionMsg);
+    }
+
+    /**
+     * 为锁的key加上哈希标签，redis集群下相同标签的key落在同一槽位
+     * @param hashTag 哈希标签，不能包含 { 或 }
+     * @param key 锁的key
+     * @return {hashTag}key
+     */
+    public static String withHashTag(String hashTag, String key) {
+
+        if (StringUtils.isEmpty(hashTag) || StringUtils.containsAny(hashTag, '{', '}')) {
+            throw new IllegalArgumentException(String.format("Invalid hash tag of distributeLock, hashTag = %s", hashTag));
+        }
+        return "{" + hashTag + "}" + key;
+    }
+
     /**
      * 上锁
      * @param key 锁的key
@@ -166,7 +235,7 @@ public class DistributeLockUtil implements ApplicationContextAware {
     @Deprecated
     public static boolean tryLock(String key, String value, long expireTime) {
 
-        return lockAction.tryLock(key, value, expireTime);
+        return lockAction.tryLock(DistributeLockContext.encodeKey(key), value, expireTime);
     }
 
     /**
@@ -179,7 +248,7 @@ public class DistributeLockUtil implements ApplicationContextAware {
     @Deprecated
     public static boolean releaseLock(String key, String value) {
 
-        return lockAction.releaseLock(key, value);
+        return lockAction.releaseLock(DistributeLockContext.encodeKey(key), value);
     }
 
 }
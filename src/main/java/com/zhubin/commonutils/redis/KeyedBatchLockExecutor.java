@@ -0,0 +1,225 @@
+package com.zhubin.commonutils.redis;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 按key合并执行的分布式锁执行器：同一key的任务先在进程内排队，由单个线程在一次加锁内批量执行，
+ * 每批不超过 maxBatchSize 个任务且持锁不超过 maxBatchMillis，执行完一批释放锁后再竞争下一批，避免长期占用锁。
+ * 适用于对同一聚合的大量细小更新(如同一账户计数)，每个任务各自返回 CompletableFuture；任务按提交顺序执行，不应再获取同一key的锁
+ */
+@Slf4j
+public class KeyedBatchLockExecutor {
+
+    /**
+     * 每个key的待执行任务，仅在 queues.compute 内创建、移除及修改 draining
+     */
+    private final Map<String, KeyQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 批量执行使用的线程池
+     */
+    private final Executor executor;
+
+    /**
+     * 单批最多任务数
+     */
+    private final int maxBatchSize;
+
+    /**
+     * 单批最长持锁时间，单位为纳秒
+     */
+    private final long maxBatchNanos;
+
+    /**
+     * 锁失效时间，单位为毫秒
+     */
+    private final long expireTime;
+
+    /**
+     * 自旋等待时间，为null时使用排他锁
+     */
+    private final Long waitingTime;
+
+    /**
+     * 最大总计自旋等待时间
+     */
+    private final Long maxWaitingTime;
+
+    /**
+     * @param executor 批量执行使用的线程池
+     * @param maxBatchSize 单批最多任务数
+     * @param maxBatchMillis 单批最长持锁时间，单位为毫秒，需小于锁失效时间
+     * @param expireTime 锁失效时间，单位为毫秒
+     * @param waitingTime 自旋等待时间，单位为毫秒，为null时使用排他锁，获取不到直接失败
+     * @param maxWaitingTime 最大总计自旋等待时间，单位为毫秒
+     */
+    public KeyedBatchLockExecutor(Executor executor, int maxBatchSize, long maxBatchMillis, long expireTime,
+                                  Long waitingTime, Long maxWaitingTime) {
+
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("The maxBatchSize of keyed batch lock executor must be positive");
+        }
+        if (maxBatchMillis <= 0L || maxBatchMillis >= expireTime) {
+            throw new IllegalArgumentException("The maxBatchMillis of keyed batch lock executor must be positive and less than expireTime");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchMillis);
+        this.expireTime = expireTime;
+        this.waitingTime = waitingTime;
+        this.maxWaitingTime = maxWaitingTime;
+    }
+
+    /**
+     * 提交有返回值的任务
+     * @param key 锁的key
+     * @param task 任务
+     * @param <T> 返回结果泛型
+     * @return 任务结果，获取锁失败时以 DistributeLockTimeoutException 异常完成
+     */
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> task) {
+
+        Objects.requireNonNull(task, "task");
+        Task<T> pending = new Task<>(task);
+        boolean[] schedule = new boolean[1];
+        queues.compute(key, (k, queue) -> {
+            KeyQueue current = queue == null ? new KeyQueue() : queue;
+            current.tasks.add(pending);
+            if (!current.draining) {
+                current.draining = true;
+                schedule[0] = true;
+            }
+            return current;
+        });
+        if (schedule[0]) {
+            try {
+                executor.execute(() -> drain(key));
+            } catch (RuntimeException e) {
+                // 线程池拒绝时，当前线程负责排空
+                log.warn(String.format("Keyed batch lock executor rejected, drain in caller thread, key = %s", key), e);
+                drain(key);
+            }
+        }
+        return pending.future;
+    }
+
+    /**
+     * 提交无返回值的任务
+     * @param key 锁的key
+     * @param task 任务
+     * @return 任务完成的结果
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+
+        Objects.requireNonNull(task, "task");
+        return submit(key, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return 有待执行任务的key数量
+     */
+    public int getPendingKeys() {
+
+        return queues.size();
+    }
+
+    private void drain(String key) {
+
+        while (true) {
+            KeyQueue queue = queues.get(key);
+            if (queue == null) {
+                return;
+            }
+            if (queue.tasks.isEmpty()) {
+                // 队列为空时在compute内移除，与提交互斥，避免遗漏任务
+                boolean[] finished = new boolean[1];
+                queues.computeIfPresent(key, (k, current) -> {
+                    finished[0] = current.tasks.isEmpty();
+                    return finished[0] ? null : current;
+                });
+                if (finished[0]) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                if (Objects.isNull(waitingTime)) {
+                    DistributeLockUtil.runExclusiveLock(() -> runBatch(queue.tasks), key, expireTime, null);
+                } else {
+                    DistributeLockUtil.runSpinLock(() -> runBatch(queue.tasks), key, expireTime, null, waitingTime, maxWaitingTime);
+                }
+            } catch (Exception e) {
+                // 未获取到锁或锁服务不可用，已排队的任务全部失败，避免调用方一直等待
+                failAll(queue.tasks, e);
+            }
+        }
+    }
+
+    private void runBatch(Queue<Task<?>> tasks) {
+
+        long start = System.nanoTime();
+        int count = 0;
+        Task<?> task;
+        while (count < maxBatchSize && System.nanoTime() - start < maxBatchNanos && (task = tasks.poll()) != null) {
+            task.run();
+            count++;
+        }
+    }
+
+    private static void failAll(Queue<Task<?>> tasks, Throwable cause) {
+
+        Task<?> task;
+        while ((task = tasks.poll()) != null) {
+            task.future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class KeyQueue {
+
+        private final Queue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+
+        /**
+         * 是否已有线程在排空
+         */
+        private boolean draining;
+
+    }
+
+    private static final class Task<T> {
+
+        private final Supplier<T> supplier;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Task(Supplier<T> supplier) {
+
+            this.supplier = supplier;
+        }
+
+        private void run() {
+
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+    }
+
+}
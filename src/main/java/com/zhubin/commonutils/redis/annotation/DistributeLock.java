@@ -25,6 +25,13 @@ public @interface DistributeLock {
      */
     String key();
 
+    /**
+     * 哈希标签，可根据参数使用SPEL语法解析；设置后锁的key为 {hashTag} + key，redis集群下相同标签的锁落在同一槽位，
+     * 如 hashTag = "#dto.accountId"，便于与同一聚合的其他key一起批量加锁
+     * @return 哈希标签
+     */
+    String hashTag() default "";
+
     /**
      * 锁失效时间，默认3秒
      * @return 锁失效时间
@@ -0,0 +1,25 @@
+package com.zhubin.commonutils.redis.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 仅主节点执行注解，用于定时任务等无返回值方法，非主节点直接跳过并返回null；只判断本地状态，无网络开销。请勿在同一个类中使用
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LeaderOnly {
+
+    /**
+     * 选主组名称，为空时使用唯一的选主组
+     * @return 选主组名称
+     */
+    String value() default "";
+
+}
@@ -53,6 +53,9 @@ public class DistributeLockAop {
 
         // 拿到锁的key，密钥，失效时间
         String lockKey = parseLockKey(lock.key(), method, joinPoint);
+        if (StringUtils.isNotBlank(lock.hashTag())) {
+            lockKey = DistributeLockUtil.withHashTag(parseLockKey(lock.hashTag(), method, joinPoint), lockKey);
+        }
         long expireTime = lock.expireTime();
         String exceptionMsg = lock.exceptionMsg();
         long waitingTime = lock.waitingTime();
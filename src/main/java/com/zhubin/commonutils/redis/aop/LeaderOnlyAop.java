@@ -0,0 +1,61 @@
+package com.zhubin.commonutils.redis.aop;
+
+import com.zhubin.commonutils.redis.annotation.LeaderOnly;
+import com.zhubin.commonutils.redis.leader.LeaderElection;
+import org.apache.commons.lang3.StringUtils;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 仅主节点执行aop
+ */
+@Aspect
+public class LeaderOnlyAop {
+
+    private final Map<String, LeaderElection> elections = new HashMap<>();
+
+    public LeaderOnlyAop(List<LeaderElection> elections) {
+
+        elections.forEach(election -> this.elections.put(election.getName(), election));
+    }
+
+    @Pointcut("@annotation(com.zhubin.commonutils.redis.annotation.LeaderOnly)")
+    public void leaderOnlyAop() {
+
+    }
+
+    @Around(value = "leaderOnlyAop()")
+    public Object leaderOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        LeaderOnly leaderOnly = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(LeaderOnly.class);
+        if (!getElection(leaderOnly.value()).isLeader()) {
+            return null;
+        }
+        return joinPoint.proceed();
+    }
+
+    private LeaderElection getElection(String name) {
+
+        if (StringUtils.isBlank(name)) {
+            if (elections.size() != 1) {
+                throw new IllegalArgumentException(String.format("The value of LeaderOnly is required when %d leader elections are defined", elections.size()));
+            }
+            return elections.values().iterator().next();
+        }
+        LeaderElection election = elections.get(name);
+        if (election == null) {
+            throw new IllegalArgumentException(String.format("Leader election is undefined, name = %s", name));
+        }
+        return election;
+    }
+
+}
@@ -3,27 +3,83 @@ package com.zhubin.commonutils.redis.config;
 import com.zhubin.commonutils.redis.DistributeLockUtil;
 import com.zhubin.commonutils.redis.aop.DistributeLockAop;
 import com.zhubin.commonutils.redis.lock.LockAction;
+import com.zhubin.commonutils.redis.lock.LockCircuitBreaker;
+import com.zhubin.commonutils.redis.lock.LockKeyCodec;
 import com.zhubin.commonutils.redis.lock.RedisKeyLockUtils;
 import com.zhubin.commonutils.redis.lock.impl.DefaultLockActionRedisImpl;
+import com.zhubin.commonutils.redis.lock.impl.DegradableLockActionRedisImpl;
+import com.zhubin.commonutils.redis.lock.impl.FileChannelLockActionImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author zhubin
  * @date 2022/3/25
- * @description 分布式锁操作默认实现配置
+ * @description 分布式锁操作默认实现配置，common-utils.lock.action=redis(默认)|file 选择锁动作实现，file 仅用于同一台机器上的多进程协调；
+ * redis实现可通过 common-utils.lock.breaker.enabled=true 开启熔断，local-key-prefixes 匹配的key在redis不可用时降级为进程内锁(选主key除外)；
+ * common-utils.lock.command-timeout 为单次锁命令的超时时间，开启熔断时默认500毫秒，未开启熔断时默认使用客户端的超时时间；
+ * common-utils.lock.key-codec.enabled=true 时锁key压缩为定长哈希，local-key-prefixes 在编码后的key中保留，降级判断不受影响
  */
 @Configuration
 public class DefaultLockActionConfig {
 
+    /**
+     * 开启熔断且未配置 common-utils.lock.command-timeout 时单次锁命令的超时时间，单位为毫秒
+     */
+    private static final long DEFAULT_BREAKER_COMMAND_TIMEOUT = 500L;
+
     @Bean("lockActionImpl")
-    public LockAction defaultDistributeLockConfig() {
+    @ConditionalOnProperty(prefix = "common-utils.lock", name = "action", havingValue = "redis", matchIfMissing = true)
+    public LockAction defaultDistributeLockConfig(
+            @Value("${common-utils.lock.breaker.enabled:false}") boolean breakerEnabled,
+            @Value("${common-utils.lock.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${common-utils.lock.breaker.open-millis:5000}") long openMillis,
+            @Value("${common-utils.lock.breaker.local-key-prefixes:}") String[] localKeyPrefixes,
+            ObjectProvider<LockKeyCodec> lockKeyCodec) {
+        if (breakerEnabled) {
+            // 降级判断作用于编码后的key，前缀需按编码规则转换
+            LockKeyCodec codec = lockKeyCodec.getIfAvailable();
+            List<String> prefixes = Arrays.stream(localKeyPrefixes)
+                    .map(prefix -> codec == null ? prefix : codec.encodePrefix(prefix))
+                    .collect(Collectors.toList());
+            return new DegradableLockActionRedisImpl(new LockCircuitBreaker(failureThreshold, openMillis), prefixes);
+        }
         return new DefaultLockActionRedisImpl();
     }
 
+    @Bean("lockActionImpl")
+    @ConditionalOnProperty(prefix = "common-utils.lock", name = "action", havingValue = "file")
+    public LockAction fileChannelLockAction(
+            @Value("${common-utils.lock.file.path:${java.io.tmpdir}/${spring.application.name}.lock}") String path,
+            @Value("${common-utils.lock.file.slots:65536}") int slots,
+            @Value("${common-utils.lock.file.segments:256}") int segments) throws IOException {
+        return FileChannelLockActionImpl.open(path, slots, segments);
+    }
+
+    @Bean
+    public RedisKeyLockUtils redisKeyLockUtils(@Value("${common-utils.lock.command-timeout:#{null}}") Long commandTimeout,
+                                               @Value("${common-utils.lock.breaker.enabled:false}") boolean breakerEnabled) {
+        RedisKeyLockUtils redisKeyLockUtils = new RedisKeyLockUtils();
+        // 未配置时仅在开启熔断时限时等待，未开启熔断保持客户端的超时时间
+        redisKeyLockUtils.setCommandTimeout(commandTimeout != null ? commandTimeout : breakerEnabled ? DEFAULT_BREAKER_COMMAND_TIMEOUT : 0L);
+        return redisKeyLockUtils;
+    }
+
     @Bean
-    public RedisKeyLockUtils redisKeyLockUtils() {
-        return new RedisKeyLockUtils();
+    @ConditionalOnProperty(prefix = "common-utils.lock.key-codec", name = "enabled", havingValue = "true")
+    public LockKeyCodec lockKeyCodec(@Value("${common-utils.lock.key-codec.namespace:lk:}") String namespace,
+                                     @Value("${common-utils.lock.breaker.local-key-prefixes:}") String[] localKeyPrefixes,
+                                     @Value("${common-utils.lock.key-codec.debug:false}") boolean debug,
+                                     @Value("${common-utils.lock.key-codec.debug-mapping-size:10000}") long debugMappingSize) {
+        return new LockKeyCodec(namespace, Arrays.asList(localKeyPrefixes), debug, debugMappingSize);
     }
 
     @Bean
@@ -0,0 +1,34 @@
+package com.zhubin.commonutils.redis.config;
+
+import com.zhubin.commonutils.redis.aop.LeaderOnlyAop;
+import com.zhubin.commonutils.redis.leader.LeaderElection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 选主配置，common-utils.leader.enabled=true 时开启；需要多个选主组时可自行声明 LeaderElection
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "common-utils.leader", name = "enabled", havingValue = "true")
+public class LeaderElectionConfig {
+
+    @Bean
+    public LeaderElection leaderElection(@Value("${common-utils.leader.name:${spring.application.name}}") String name,
+                                         @Value("${common-utils.leader.lease-time:10000}") long leaseTime) {
+
+        return new LeaderElection(name, leaseTime);
+    }
+
+    @Bean
+    public LeaderOnlyAop leaderOnlyAop(List<LeaderElection> elections) {
+
+        return new LeaderOnlyAop(elections);
+    }
+
+}
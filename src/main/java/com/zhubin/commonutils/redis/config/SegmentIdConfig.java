@@ -0,0 +1,27 @@
+package com.zhubin.commonutils.redis.config;
+
+import com.zhubin.commonutils.redis.id.SegmentIdAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 号段模式ID分配器配置，common-utils.segment.enabled=true 时开启
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "common-utils.segment", name = "enabled", havingValue = "true")
+public class SegmentIdConfig {
+
+    @Bean
+    public SegmentIdAllocator segmentIdAllocator(
+            @Value("${common-utils.segment.key-prefix:segment:${spring.application.name}:}") String keyPrefix,
+            @Value("${common-utils.segment.step:1000}") long step,
+            @Value("${common-utils.segment.prefetch-ratio:0.2}") double prefetchRatio) {
+
+        return new SegmentIdAllocator(keyPrefix, step, prefetchRatio);
+    }
+
+}
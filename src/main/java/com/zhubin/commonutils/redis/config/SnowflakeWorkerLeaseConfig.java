@@ -0,0 +1,32 @@
+package com.zhubin.commonutils.redis.config;
+
+import com.zhubin.commonutils.common.utils.SnowflakeBitLayout;
+import com.zhubin.commonutils.redis.id.SnowflakeWorkerIdLease;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 雪花算法节点ID租约配置，common-utils.snowflake.worker-lease.enabled=true 时开启
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "common-utils.snowflake.worker-lease", name = "enabled", havingValue = "true")
+public class SnowflakeWorkerLeaseConfig {
+
+    @Bean
+    public SnowflakeWorkerIdLease snowflakeWorkerIdLease(
+            @Value("${common-utils.snowflake.worker-lease.key-prefix:snowflake:worker:${spring.application.name}:}") String keyPrefix,
+            @Value("${common-utils.snowflake.worker-lease.lease-time:30000}") long leaseTime,
+            @Value("${common-utils.snowflake.timestamp-bits:41}") int timestampBits,
+            @Value("${common-utils.snowflake.data-center-id-bits:5}") int dataCenterIdBits,
+            @Value("${common-utils.snowflake.worker-id-bits:5}") int workerIdBits,
+            @Value("${common-utils.snowflake.sequence-bits:12}") int sequenceBits) {
+
+        SnowflakeBitLayout layout = new SnowflakeBitLayout(timestampBits, dataCenterIdBits, workerIdBits, sequenceBits);
+        return new SnowflakeWorkerIdLease(keyPrefix, leaseTime, layout);
+    }
+
+}
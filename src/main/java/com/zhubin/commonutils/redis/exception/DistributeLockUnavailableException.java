@@ -0,0 +1,22 @@
+package com.zhubin.commonutils.redis.exception;
+
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁服务不可用(熔断打开或命令超时)且该key未配置降级时抛出，调用方不再自旋等待
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class DistributeLockUnavailableException extends DistributeLockException {
+
+    private final String lockKey;
+
+    public DistributeLockUnavailableException(String lockKey, Throwable throwable) {
+        super(String.format("Distribute lock is unavailable, key = %s", lockKey), throwable);
+        this.lockKey = lockKey;
+    }
+}
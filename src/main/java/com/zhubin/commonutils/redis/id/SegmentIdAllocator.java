@@ -0,0 +1,298 @@
+package com.zhubin.commonutils.redis.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.annotation.Resource;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 号段模式ID分配器：按业务标识通过redis INCRBY租用连续的号段，在内存中用原子计数器发号；
+ * 当前号段消耗到一定比例时后台预取下一号段(双缓冲)，一次redis调用可发放整段ID。
+ * 号段由redis计数器连续分配，节点重启后租用的下一号段紧接上一号段，未发放完的号段尾部会被跳过
+ */
+@Slf4j
+public class SegmentIdAllocator implements DisposableBean {
+
+    /**
+     * 等待预取结果的单次挂起时间，单位为毫秒
+     */
+    private static final long PREFETCH_WAIT_MILLIS = 10L;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * redis计数器key前缀，后接业务标识
+     */
+    private final String keyPrefix;
+
+    /**
+     * 默认号段长度
+     */
+    private final long defaultStep;
+
+    /**
+     * 当前号段消耗到该比例时预取下一号段
+     */
+    private final double prefetchRatio;
+
+    /**
+     * 业务标识对应的号段长度
+     */
+    private final Map<String, Long> steps = new ConcurrentHashMap<>();
+
+    /**
+     * 业务标识对应的双缓冲
+     */
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+
+    private final ExecutorService loader = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "segment-id-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SegmentIdAllocator(String keyPrefix, long defaultStep, double prefetchRatio) {
+
+        if (defaultStep <= 0L) {
+            throw new IllegalArgumentException("The step of segment must be positive");
+        }
+        if (prefetchRatio <= 0D || prefetchRatio >= 1D) {
+            throw new IllegalArgumentException("The prefetchRatio of segment must be between 0 and 1");
+        }
+        this.keyPrefix = keyPrefix;
+        this.defaultStep = defaultStep;
+        this.prefetchRatio = prefetchRatio;
+    }
+
+    /**
+     * 设置业务标识的号段长度，从下一次租用号段开始生效
+     * @param tag 业务标识
+     * @param step 号段长度
+     */
+    public void setStep(String tag, long step) {
+
+        if (step <= 0L) {
+            throw new IllegalArgumentException(String.format("The step of segment must be positive, tag = %s", tag));
+        }
+        steps.put(tag, step);
+    }
+
+    /**
+     * 获取业务标识的下一个ID
+     * @param tag 业务标识
+     * @return id
+     */
+    public long nextId(String tag) {
+
+        SegmentBuffer buffer = buffer(tag);
+        while (true) {
+            Segment segment = buffer.current;
+            long id = segment.cursor.getAndIncrement();
+            if (id >= segment.prefetchAt) {
+                prefetch(buffer);
+            }
+            if (id <= segment.max) {
+                return id;
+            }
+            switchSegment(buffer, segment);
+        }
+    }
+
+    /**
+     * 批量获取业务标识的ID，直接写入调用方数组
+     * @param tag 业务标识
+     * @param dst 目标数组
+     */
+    public void fill(String tag, long[] dst) {
+
+        fill(tag, dst, 0, dst.length);
+    }
+
+    /**
+     * 批量获取业务标识的ID，直接写入调用方数组的指定区间
+     * @param tag 业务标识
+     * @param dst 目标数组
+     * @param offset 起始下标
+     * @param length 生成数量
+     */
+    public void fill(String tag, long[] dst, int offset, int length) {
+
+        if (offset < 0 || length < 0 || offset > dst.length - length) {
+            throw new IndexOutOfBoundsException(String.format("offset = %d, length = %d, array length = %d", offset, length, dst.length));
+        }
+        SegmentBuffer buffer = buffer(tag);
+        int index = offset;
+        int end = offset + length;
+        while (index < end) {
+            Segment segment = buffer.current;
+            int want = end - index;
+            long id = segment.cursor.getAndAdd(want);
+            if (id + want > segment.prefetchAt) {
+                prefetch(buffer);
+            }
+            if (id <= segment.max) {
+                int count = (int) Math.min(want, segment.max - id + 1);
+                for (int i = 0; i < count; i++) {
+                    dst[index++] = id + i;
+                }
+            }
+            if (index < end) {
+                switchSegment(buffer, segment);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+
+        loader.shutdownNow();
+    }
+
+    private SegmentBuffer buffer(String tag) {
+
+        if (StringUtils.isBlank(tag)) {
+            throw new IllegalArgumentException("The tag of segment cannot be empty");
+        }
+        SegmentBuffer buffer = buffers.get(tag);
+        if (buffer != null) {
+            return buffer;
+        }
+        // 不在compute内访问redis，首个号段由首次发号时在 switchSegment 中租用
+        return buffers.computeIfAbsent(tag, SegmentBuffer::new);
+    }
+
+    /**
+     * 后台预取下一号段，同一时刻每个业务标识只有一个预取任务；已有预取好的号段时不再租用，避免覆盖后整段丢失
+     */
+    private void prefetch(SegmentBuffer buffer) {
+
+        if (buffer.next != null || !buffer.loading.compareAndSet(false, true)) {
+            return;
+        }
+        // 上一个预取任务在设置next后才清除loading，抢占成功后再次检查，避免在其完成的间隙重复预取
+        if (buffer.next != null) {
+            buffer.loading.set(false);
+            return;
+        }
+        try {
+            loader.execute(() -> {
+                try {
+                    Segment next = load(buffer.tag);
+                    synchronized (buffer) {
+                        if (buffer.next == null) {
+                            buffer.next = next;
+                        } else {
+                            log.warn("Prefetched segment discarded, tag = {}, max = {}", buffer.tag, next.max);
+                        }
+                    }
+                } catch (Exception e) {
+                    log.error(String.format("Prefetch segment error, tag = %s", buffer.tag), e);
+                } finally {
+                    // 清除预取标记后再唤醒，等待线程被唤醒时即可看到预取已结束，失败时改为同步租用
+                    synchronized (buffer) {
+                        buffer.loading.set(false);
+                        buffer.notifyAll();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 线程池已关闭时不再预取，号段耗尽时同步租用
+            buffer.loading.set(false);
+            log.warn(String.format("Prefetch segment rejected, tag = %s", buffer.tag), e);
+        }
+    }
+
+    /**
+     * 当前号段耗尽时切换到下一号段；预取进行中时等待其完成，保证号段按顺序发放；没有预取时同步租用。
+     * 等待期间会释放锁，其他线程可能已完成切换，每次被唤醒后都需重新检查，否则会覆盖尚未发放完的号段
+     */
+    private void switchSegment(SegmentBuffer buffer, Segment exhausted) {
+
+        synchronized (buffer) {
+            while (buffer.current == exhausted && buffer.next == null && buffer.loading.get()) {
+                try {
+                    buffer.wait(PREFETCH_WAIT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(String.format("Interrupted while waiting for segment, tag = %s", buffer.tag), e);
+                }
+            }
+            if (buffer.current != exhausted) {
+                return;
+            }
+            Segment next = buffer.next;
+            buffer.next = null;
+            buffer.current = Objects.nonNull(next) ? next : load(buffer.tag);
+        }
+    }
+
+    private Segment load(String tag) {
+
+        long step = steps.getOrDefault(tag, defaultStep);
+        Long end = stringRedisTemplate.opsForValue().increment(keyPrefix + tag, step);
+        if (end == null) {
+            throw new IllegalStateException(String.format("Lease segment from redis failed, tag = %s", tag));
+        }
+        return new Segment(end - step + 1, end, prefetchRatio);
+    }
+
+    /**
+     * 号段：[start, max]，cursor为下一个待发放的ID
+     */
+    private static final class Segment {
+
+        private final long max;
+
+        private final long prefetchAt;
+
+        private final AtomicLong cursor;
+
+        private Segment(long start, long max, double prefetchRatio) {
+            this.max = max;
+            this.prefetchAt = start + (long) ((max - start + 1) * prefetchRatio);
+            this.cursor = new AtomicLong(start);
+        }
+
+        /**
+         * 空号段，首次发号时即耗尽，不触发预取
+         */
+        private Segment() {
+            this.max = -1L;
+            this.prefetchAt = Long.MAX_VALUE;
+            this.cursor = new AtomicLong(0L);
+        }
+    }
+
+    /**
+     * 双缓冲：正在发放的号段与预取好的下一号段
+     */
+    private static final class SegmentBuffer {
+
+        private final String tag;
+
+        private final AtomicBoolean loading = new AtomicBoolean(false);
+
+        private volatile Segment current;
+
+        private volatile Segment next;
+
+        private SegmentBuffer(String tag) {
+            this.tag = tag;
+            this.current = new Segment();
+        }
+    }
+
+}
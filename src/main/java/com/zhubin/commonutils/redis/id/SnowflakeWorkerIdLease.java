@@ -0,0 +1,170 @@
+package com.zhubin.commonutils.redis.id;
+
+import com.zhubin.commonutils.common.utils.SnowflakeBitLayout;
+import com.zhubin.commonutils.common.utils.SnowflakeIdUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 通过redis租约分配雪花算法的节点ID(数据中心ID + 机器ID)，后台线程续约；
+ * 宕机节点的租约过期后自动回收，正常停机时主动释放。租约在启动后异步获取，不阻塞启动流程；
+ * 获取到租约前及租约在本地到期(redis长时间不可用、续约失败)后，SnowflakeIdUtils 拒绝生成ID，避免与占用同一节点ID的其他节点重复
+ */
+@Slf4j
+public class SnowflakeWorkerIdLease implements InitializingBean, DisposableBean {
+
+    private static final String RENEW_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+
+    private static final String RELEASE_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 租约key前缀，后接节点ID
+     */
+    private final String keyPrefix;
+
+    /**
+     * 租约时长，单位为毫秒
+     */
+    private final long leaseTime;
+
+    /**
+     * 位划分
+     */
+    private final SnowflakeBitLayout layout;
+
+    /**
+     * 本节点持有租约的秘钥
+     */
+    private final String secret = UUID.randomUUID().toString();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "snowflake-worker-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 当前持有的节点ID，未持有时为-1
+     */
+    @Getter
+    private volatile long nodeId = -1L;
+
+    public SnowflakeWorkerIdLease(String keyPrefix, long leaseTime, SnowflakeBitLayout layout) {
+
+        if (leaseTime <= 0L) {
+            throw new IllegalArgumentException("The leaseTime of snowflake worker lease must be positive");
+        }
+        this.keyPrefix = keyPrefix;
+        this.leaseTime = leaseTime;
+        this.layout = layout;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        SnowflakeIdUtils.requireLease(layout);
+        long period = Math.max(leaseTime / 3L, 1L);
+        scheduler.scheduleWithFixedDelay(this::renewOrAcquire, 0L, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+
+        scheduler.shutdownNow();
+        long held = this.nodeId;
+        if (held < 0) {
+            return;
+        }
+        // 先停止生成再释放，释放后其他节点可立即占用
+        SnowflakeIdUtils.expireLease();
+        try {
+            stringRedisTemplate.execute(script(RELEASE_SCRIPT), Collections.singletonList(keyPrefix + held), secret);
+        } catch (Exception e) {
+            log.error(String.format("Release snowflake worker lease error, nodeId = %d", held), e);
+        }
+    }
+
+    private void renewOrAcquire() {
+
+        try {
+            long held = this.nodeId;
+            if (held >= 0) {
+                // redis异常时保留节点ID等待下次续约，本地到期后 SnowflakeIdUtils 自动停止生成
+                long start = System.nanoTime();
+                if (renew(held)) {
+                    SnowflakeIdUtils.renewLease(held >> layout.getWorkerIdBits(), held & layout.maxWorkerId(), start + leaseNanos());
+                    return;
+                }
+                log.warn("Snowflake worker lease lost, nodeId = {}, try to acquire a new one", held);
+                SnowflakeIdUtils.expireLease();
+                this.nodeId = -1L;
+            }
+            acquire();
+        } catch (Exception e) {
+            log.error("Renew snowflake worker lease error, ", e);
+        }
+    }
+
+    private boolean renew(long held) {
+
+        Long result = stringRedisTemplate.execute(script(RENEW_SCRIPT), Collections.singletonList(keyPrefix + held),
+                secret, String.valueOf(leaseTime));
+        return Objects.nonNull(result) && result > 0;
+    }
+
+    /**
+     * 从随机位置开始依次尝试占用空闲节点ID，减少多节点同时启动时的竞争
+     */
+    private void acquire() {
+
+        long nodeCount = layout.nodeCount();
+        long start = ThreadLocalRandom.current().nextLong(nodeCount);
+        for (long i = 0; i < nodeCount; i++) {
+            long candidate = (start + i) % nodeCount;
+            // 以发起命令前的时间计算本地到期时间，不晚于redis中的过期时间
+            long commandStart = System.nanoTime();
+            Boolean success = stringRedisTemplate.opsForValue().setIfAbsent(keyPrefix + candidate, secret, leaseTime, TimeUnit.MILLISECONDS);
+            if (Objects.nonNull(success) && success) {
+                long dataCenterId = candidate >> layout.getWorkerIdBits();
+                long workerId = candidate & layout.maxWorkerId();
+                SnowflakeIdUtils.registerLease(layout, dataCenterId, workerId, commandStart + leaseNanos());
+                this.nodeId = candidate;
+                log.info("Snowflake worker lease acquired, nodeId = {}, dataCenterId = {}, workerId = {}", candidate, dataCenterId, workerId);
+                return;
+            }
+        }
+        log.error("No free snowflake worker id, nodeCount = {}, keyPrefix = {}", nodeCount, keyPrefix);
+    }
+
+    private long leaseNanos() {
+
+        return TimeUnit.MILLISECONDS.toNanos(leaseTime);
+    }
+
+    private static DefaultRedisScript<Long> script(String text) {
+
+        DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+        redisScript.setResultType(Long.class);
+        redisScript.setScriptText(text);
+        return redisScript;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.zhubin.commonutils.redis.leader;
+
+import com.zhubin.commonutils.redis.lock.LockAction;
+import com.zhubin.commonutils.redis.lock.LockSecretUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import javax.annotation.Resource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 基于锁租约的选主：后台线程每 1/3 租约时长竞选或续约，业务只读本地状态判断是否为主节点，无网络开销。
+ * 本地租约截止时间从发起请求前开始计算，早于redis中的过期时间，续约线程停顿时本节点先于其他节点放弃主节点身份；
+ * 单次续约失败(如命令超时)不会放弃租约，在redis中的租约必然过期之前持续以同一秘钥续约
+ */
+@Slf4j
+public class LeaderElection implements InitializingBean, DisposableBean {
+
+    /**
+     * 选主锁key前缀，选主key不降级为进程内锁，否则redis不可用时每个节点都会成为主节点
+     */
+    public static final String KEY_PREFIX = "leader:";
+
+    @Resource
+    private LockAction lockAction;
+
+    /**
+     * 选主组名称
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * 锁的key
+     */
+    private final String lockKey;
+
+    /**
+     * 租约时长，单位为毫秒
+     */
+    @Getter
+    private final long leaseTime;
+
+    /**
+     * 本节点竞选使用的秘钥
+     */
+    private final String secret = LockSecretUtils.nextSecret();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * redis中是否可能仍由本节点持有租约
+     */
+    private volatile boolean holding;
+
+    /**
+     * 是否已作为主节点记录日志，仅由竞选线程修改
+     */
+    private boolean leader;
+
+    /**
+     * 本地租约截止时间，System.nanoTime()
+     */
+    private volatile long leaseDeadline;
+
+    public LeaderElection(String name, long leaseTime) {
+
+        if (leaseTime <= 0L) {
+            throw new IllegalArgumentException("The leaseTime of leader election must be positive");
+        }
+        this.name = name;
+        this.lockKey = KEY_PREFIX + name;
+        this.leaseTime = leaseTime;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leader-election-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 本节点当前是否为主节点，只读本地状态
+     * @return 是否为主节点
+     */
+    public boolean isLeader() {
+
+        return holding && System.nanoTime() - leaseDeadline < 0L;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        scheduler.scheduleWithFixedDelay(this::campaign, 0L, Math.max(1L, leaseTime / 3L), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+
+        scheduler.shutdownNow();
+        if (holding) {
+            holding = false;
+            lockAction.releaseLock(lockKey, secret);
+            log.info("Leader election resigned, name = {}", name);
+        }
+    }
+
+    private void campaign() {
+
+        try {
+            long start = System.nanoTime();
+            // 续约失败可能只是命令超时，redis中仍由本节点持有，此时竞选会失败，需继续续约；已被其他节点占用时续约与竞选均失败
+            boolean success = (holding && lockAction.renewLock(lockKey, secret, leaseTime))
+                    || lockAction.tryLock(lockKey, secret, leaseTime);
+            if (success) {
+                leaseDeadline = start + TimeUnit.MILLISECONDS.toNanos(leaseTime);
+                holding = true;
+                if (!leader) {
+                    leader = true;
+                    log.info("Leader election won, name = {}", name);
+                }
+                return;
+            }
+            onCampaignFailed(start);
+        } catch (Exception e) {
+            log.error(String.format("Leader election campaign error, name = %s", name), e);
+            onCampaignFailed(System.nanoTime());
+        }
+    }
+
+    /**
+     * 续约与竞选均失败：本地截止时间前仍为主节点；截止时间过后不再是主节点，再过一个租约时长后redis中的租约必然已过期，不再续约
+     */
+    private void onCampaignFailed(long now) {
+
+        if (!holding || now - leaseDeadline < 0L) {
+            return;
+        }
+        if (leader) {
+            leader = false;
+            log.warn("Leader election lost, name = {}", name);
+        }
+        if (now - leaseDeadline >= TimeUnit.MILLISECONDS.toNanos(leaseTime)) {
+            holding = false;
+        }
+    }
+
+}
@@ -1,5 +1,10 @@
 package com.zhubin.commonutils.redis.lock;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
 /**
  * @author zhubin
  * @date 2023/10/30
@@ -25,4 +30,53 @@ public interface LockAction {
      */
     boolean releaseLock(String key, String value);
 
+    /**
+     * 续约，仅当锁仍由该秘钥持有时重置过期时间；不支持续约的实现返回false
+     * @param key 锁的key
+     * @param value 锁的秘钥
+     * @param expireTime 新的过期时间，单位为毫秒
+     * @return 是否续约成功
+     */
+    default boolean renewLock(String key, String value, long expireTime) {
+
+        return false;
+    }
+
+    /**
+     * 批量获取锁，全部获取到才成功，失败时释放已获取的锁；默认按key排序逐个获取，避免多个调用方交叉死锁
+     * @param keys 锁的key
+     * @param value 锁的秘钥
+     * @param expireTime 锁的过期时间
+     * @return 是否全部获取到了锁
+     */
+    default boolean tryLockAll(Collection<String> keys, String value, long expireTime) {
+
+        List<String> acquired = new ArrayList<>(keys.size());
+        try {
+            for (String key : new TreeSet<>(keys)) {
+                if (!tryLock(key, value, expireTime)) {
+                    releaseAll(acquired, value);
+                    return false;
+                }
+                acquired.add(key);
+            }
+        } catch (RuntimeException e) {
+            releaseAll(acquired, value);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * 批量释放锁
+     * @param keys 锁的key
+     * @param value 锁的秘钥
+     */
+    default void releaseAll(Collection<String> keys, String value) {
+
+        for (String key : keys) {
+            releaseLock(key, value);
+        }
+    }
+
 }
@@ -0,0 +1,120 @@
+package com.zhubin.commonutils.redis.lock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁命令熔断器：连续失败达到阈值后打开，打开期间直接拒绝；打开时长结束后半开，仅放行一个探测请求，成功则关闭，失败则重新打开
+ */
+@Slf4j
+public class LockCircuitBreaker {
+
+    public enum State {
+        /**
+         * 关闭，正常放行
+         */
+        CLOSED,
+        /**
+         * 打开，直接拒绝
+         */
+        OPEN,
+        /**
+         * 半开，放行一个探测请求
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * 连续失败次数阈值
+     */
+    private final int failureThreshold;
+
+    /**
+     * 打开时长，单位为纳秒
+     */
+    private final long openNanos;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * 半开状态下是否已有探测请求
+     */
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    /**
+     * 打开时间，System.nanoTime()；未打开时无意义
+     */
+    private volatile long openedAt;
+
+    private volatile boolean open;
+
+    /**
+     * @param failureThreshold 连续失败次数阈值
+     * @param openMillis 打开时长，单位为毫秒
+     */
+    public LockCircuitBreaker(int failureThreshold, long openMillis) {
+
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("The failureThreshold of lock circuit breaker must be positive");
+        }
+        if (openMillis <= 0L) {
+            throw new IllegalArgumentException("The openMillis of lock circuit breaker must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * 是否放行本次调用，放行后必须调用 onSuccess 或 onFailure
+     * @return 是否放行
+     */
+    public boolean allowRequest() {
+
+        if (!open) {
+            return true;
+        }
+        if (System.nanoTime() - openedAt < openNanos) {
+            return false;
+        }
+        return probing.compareAndSet(false, true);
+    }
+
+    public void onSuccess() {
+
+        consecutiveFailures.set(0);
+        if (open) {
+            open = false;
+            log.info("Lock circuit breaker closed");
+        }
+        probing.set(false);
+    }
+
+    public void onFailure() {
+
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || open) {
+            openedAt = System.nanoTime();
+            if (!open) {
+                open = true;
+                log.warn("Lock circuit breaker opened after {} consecutive failures", failureThreshold);
+            }
+        }
+        probing.set(false);
+    }
+
+    /**
+     * @return 当前状态
+     */
+    public State getState() {
+
+        if (!open) {
+            return State.CLOSED;
+        }
+        return System.nanoTime() - openedAt < openNanos ? State.OPEN : State.HALF_OPEN;
+    }
+
+}
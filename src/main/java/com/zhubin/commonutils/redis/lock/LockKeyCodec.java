@@ -0,0 +1,163 @@
+package com.zhubin.commonutils.redis.lock;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.zhubin.commonutils.common.utils.IdCodec;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁key压缩编码：将解析后的key哈希(murmur3_128)为定长的 命名空间前缀 + 22位base62 形式，降低redis内存与命令大小；
+ * key中含哈希标签 {tag} 时保留标签，集群槽位不变；key以保留前缀开头时编码后为 命名空间前缀 + 保留前缀 + 哈希，
+ * 按前缀判断的逻辑(如熔断降级的 local-key-prefixes)对编码后的key仍然有效。调试模式下记录 编码后key -> 原始key 的映射，可通过 decode 查询
+ */
+@Slf4j
+public class LockKeyCodec {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * 哈希部分长度
+     */
+    public static final int HASH_LENGTH = IdCodec.BASE62_LENGTH * 2;
+
+    /**
+     * 命名空间前缀
+     */
+    @Getter
+    private final String namespace;
+
+    /**
+     * 编码后保留的key前缀
+     */
+    private final List<String> preservedPrefixes;
+
+    /**
+     * 调试模式下的映射，有界，超出后淘汰最早的
+     */
+    private final Cache<String, String> debugMapping;
+
+    /**
+     * @param namespace 命名空间前缀
+     * @param debug 是否开启调试映射
+     * @param debugMappingSize 调试映射最多保留的数量
+     */
+    public LockKeyCodec(String namespace, boolean debug, long debugMappingSize) {
+
+        this(namespace, Collections.emptyList(), debug, debugMappingSize);
+    }
+
+    /**
+     * @param namespace 命名空间前缀
+     * @param preservedPrefixes 编码后保留的key前缀，不能包含哈希标签的花括号
+     * @param debug 是否开启调试映射
+     * @param debugMappingSize 调试映射最多保留的数量
+     */
+    public LockKeyCodec(String namespace, Collection<String> preservedPrefixes, boolean debug, long debugMappingSize) {
+
+        this.namespace = namespace == null ? "" : namespace;
+        this.preservedPrefixes = new ArrayList<>();
+        for (String prefix : preservedPrefixes) {
+            if (prefix.indexOf('{') >= 0 || prefix.indexOf('}') >= 0) {
+                throw new IllegalArgumentException(String.format("The preserved prefix of lock key cannot contain braces, prefix = %s", prefix));
+            }
+            if (!prefix.isEmpty()) {
+                this.preservedPrefixes.add(prefix);
+            }
+        }
+        this.debugMapping = debug ? CacheBuilder.newBuilder().maximumSize(debugMappingSize).build() : null;
+    }
+
+    /**
+     * 原始key前缀编码后对应的前缀，保留前缀以外的前缀编码后不再保留
+     * @param prefix 原始key前缀
+     * @return 编码后的key前缀
+     */
+    public String encodePrefix(String prefix) {
+
+        return namespace + prefix;
+    }
+
+    /**
+     * 编码锁的key
+     * @param key 解析后的锁的key
+     * @return 编码后的key
+     */
+    public String encode(String key) {
+
+        String hashTag = hashTag(key);
+        String prefix = preservedPrefix(key);
+        ByteBuffer hash = ByteBuffer.wrap(HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8).asBytes());
+        int tagLength = hashTag == null ? 0 : hashTag.length() + 2;
+        char[] chars = new char[namespace.length() + prefix.length() + tagLength + HASH_LENGTH];
+        namespace.getChars(0, namespace.length(), chars, 0);
+        int offset = namespace.length();
+        prefix.getChars(0, prefix.length(), chars, offset);
+        offset += prefix.length();
+        if (hashTag != null) {
+            chars[offset++] = '{';
+            hashTag.getChars(0, hashTag.length(), chars, offset);
+            offset += hashTag.length();
+            chars[offset++] = '}';
+        }
+        offset = IdCodec.encodeBase62(hash.getLong(), chars, offset);
+        IdCodec.encodeBase62(hash.getLong(), chars, offset);
+        String encoded = new String(chars);
+        if (debugMapping != null && debugMapping.getIfPresent(encoded) == null) {
+            debugMapping.put(encoded, key);
+            log.debug("Lock key encoded, {} -> {}", key, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * 调试模式下查询编码前的key
+     * @param encoded 编码后的key
+     * @return 原始key，未开启调试模式或已淘汰时为null
+     */
+    public String decode(String encoded) {
+
+        return debugMapping == null ? null : debugMapping.getIfPresent(encoded);
+    }
+
+    /**
+     * key匹配的第一个保留前缀，没有匹配时为空串
+     */
+    private String preservedPrefix(String key) {
+
+        for (String prefix : preservedPrefixes) {
+            if (key.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 按redis集群规则提取哈希标签：第一个 { 与其后第一个 } 之间的非空内容
+     */
+    private static String hashTag(String key) {
+
+        int start = key.indexOf('{');
+        if (start < 0) {
+            return null;
+        }
+        int end = key.indexOf('}', start + 1);
+        if (end <= start + 1) {
+            return null;
+        }
+        return key.substring(start + 1, end);
+    }
+
+}
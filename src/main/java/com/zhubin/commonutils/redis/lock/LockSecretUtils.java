@@ -0,0 +1,40 @@
+package com.zhubin.commonutils.redis.lock;
+
+import com.zhubin.commonutils.common.utils.IdCodec;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁秘钥生成工具类：进程启动时随机生成64位前缀，后接进程内递增计数，各为定长11位base62。
+ * 秘钥只需唯一、无需有序，不依赖雪花ID的节点ID租约，租约未获取或已失效时仍可加锁、选主
+ */
+public final class LockSecretUtils {
+
+    /**
+     * 秘钥长度
+     */
+    public static final int SECRET_LENGTH = IdCodec.BASE62_LENGTH * 2;
+
+    private static final long PROCESS_PREFIX = new SecureRandom().nextLong();
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private LockSecretUtils() {
+    }
+
+    /**
+     * 生成锁秘钥
+     * @return 定长22位秘钥
+     */
+    public static String nextSecret() {
+
+        char[] chars = new char[SECRET_LENGTH];
+        int offset = IdCodec.encodeBase62(PROCESS_PREFIX, chars, 0);
+        IdCodec.encodeBase62(COUNTER.incrementAndGet(), chars, offset);
+        return new String(chars);
+    }
+
+}
@@ -1,14 +1,38 @@
 package com.zhubin.commonutils.redis.lock;
 
 
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 
 /**
@@ -21,9 +45,32 @@ public class RedisKeyLockUtils {
 
     private static final String RELEASE_LOCK_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
 
+    private static final String RENEW_LOCK_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+
+    private static final String LOCK_ALL_SCRIPT = "for i = 1, #KEYS do if redis.call('exists', KEYS[i]) == 1 then return 0 end end "
+            + "for i = 1, #KEYS do redis.call('set', KEYS[i], ARGV[1], 'PX', ARGV[2]) end return 1";
+
+    private static final String RELEASE_ALL_SCRIPT = "local n = 0 for i = 1, #KEYS do "
+            + "if redis.call('get', KEYS[i]) == ARGV[1] then n = n + redis.call('del', KEYS[i]) end end return n";
+
+    private static final String OK = "OK";
+
     @Resource
     private RedisTemplate<String, String> redisTemplate;
 
+    /**
+     * 单次锁命令的超时时间，单位为毫秒；小于等于0时使用客户端的超时时间。
+     * 客户端为lettuce时以异步命令限时等待，超时不再阻塞调用线程
+     */
+    @Getter
+    @Setter
+    private long commandTimeout;
+
+    /**
+     * 是否为集群连接，首次批量操作时判断
+     */
+    private volatile Boolean cluster;
+
     /**
      * 获取redis锁
      * 注：Redis 2.6.12版本之后整合setnx功能，使用set命令加上NX参数即可实现setnx操作，但旧版本的setnx先上锁再设置过期时间，不是原子性的，需要使用lua脚本保证，防止Redis宕机
@@ -35,8 +82,7 @@ public class RedisKeyLockUtils {
     public boolean tryLock(String lockKey, String lockValue, long expireTime) {
 
         try {
-            Boolean setIfAbsent = redisTemplate.opsForValue().setIfAbsent(lockKey, lockValue, expireTime, TimeUnit.MILLISECONDS);
-            return Objects.nonNull(setIfAbsent) && setIfAbsent;
+            return tryLockStrict(lockKey, lockValue, expireTime);
         } catch (Exception e) {
             log.error("获取redis锁异常，错误信息: ", e);
         }
@@ -52,16 +98,285 @@ public class RedisKeyLockUtils {
     public boolean releaseLuaLock(String lockKey, String lockValue) {
 
         try {
-            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
-            redisScript.setResultType(Long.class);
-            redisScript.setScriptText(RELEASE_LOCK_SCRIPT);
-            Long execute = redisTemplate.execute(redisScript, Collections.singletonList(lockKey), lockValue);
-            return Objects.nonNull(execute) && execute > 0;
+            return releaseLuaLockStrict(lockKey, lockValue);
         } catch (Exception e) {
             log.error("释放redis锁异常，错误信息: ", e);
         }
         return false;
     }
 
-}
+    /**
+     * 使用lua脚本续约Redis锁
+     * @param lockKey 锁
+     * @param lockValue 值
+     * @param expireTime 过期时间，单位为毫秒
+     * @return boolean
+     */
+    public boolean renewLuaLock(String lockKey, String lockValue, long expireTime) {
+
+        try {
+            return renewLuaLockStrict(lockKey, lockValue, expireTime);
+        } catch (Exception e) {
+            log.error("续约redis锁异常，错误信息: ", e);
+        }
+        return false;
+    }
+
+    /**
+     * 获取redis锁，redis异常或超时时按本秘钥尽力释放后抛出异常，由调用方区分“锁被占用”与“redis不可用”
+     * @param lockKey 锁
+     * @param lockValue 值
+     * @param expireTime 过期时间
+     * @return 是否获取到了锁
+     * @throws QueryTimeoutException 超过单次命令超时时间
+     */
+    public boolean tryLockStrict(String lockKey, String lockValue, long expireTime) {
+
+        byte[] key = rawKey(lockKey);
+        byte[] value = rawValue(lockValue);
+        String result;
+        try {
+            result = execute(
+                    commands -> commands.set(key, value, SetArgs.Builder.nx().px(expireTime)),
+                    connection -> Boolean.TRUE.equals(connection.stringCommands().set(key, value,
+                            Expiration.from(expireTime, TimeUnit.MILLISECONDS), RedisStringCommands.SetOption.SET_IF_ABSENT)) ? OK : null);
+        } catch (RuntimeException e) {
+            // 超时的命令可能已在服务端加锁成功，调用方拿不到结果，按本秘钥释放，避免锁一直占用到过期
+            releaseQuietly(Collections.singletonList(new byte[][]{key}), value);
+            throw e;
+        }
+        return OK.equals(result);
+    }
 
+    /**
+     * 使用lua脚本释放Redis锁，redis异常或超时时抛出异常
+     * @param lockKey 锁
+     * @param lockValue 值
+     * @return 是否释放成功
+     * @throws QueryTimeoutException 超过单次命令超时时间
+     */
+    public boolean releaseLuaLockStrict(String lockKey, String lockValue) {
+
+        return eval(RELEASE_LOCK_SCRIPT, rawKey(lockKey), rawValue(lockValue));
+    }
+
+    /**
+     * 使用lua脚本续约Redis锁，过期时间按纯文本传参，key与value沿用模板的序列化方式；redis异常或超时时抛出异常
+     * @param lockKey 锁
+     * @param lockValue 值
+     * @param expireTime 过期时间，单位为毫秒
+     * @return 是否续约成功
+     * @throws QueryTimeoutException 超过单次命令超时时间
+     */
+    public boolean renewLuaLockStrict(String lockKey, String lockValue, long expireTime) {
+
+        return eval(RENEW_LOCK_SCRIPT, rawKey(lockKey), rawValue(lockValue), String.valueOf(expireTime).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 批量获取redis锁：以lua脚本原子加锁(全部不存在才加锁)。单机redis下整批一次执行，整体原子；
+     * 集群下按槽位分组，每组原子加锁，各组并行执行，任一组失败时释放已获取的组，全部成功才返回true
+     * @param lockKeys 锁，集群下同一槽位的key可使用哈希标签 {tag} 归为一组
+     * @param lockValue 值
+     * @param expireTime 过期时间，单位为毫秒
+     * @return 是否全部获取到了锁
+     */
+    public boolean tryLockAll(Collection<String> lockKeys, String lockValue, long expireTime) {
+
+        try {
+            return tryLockAllStrict(lockKeys, lockValue, expireTime);
+        } catch (Exception e) {
+            log.error("批量获取redis锁异常，错误信息: ", e);
+        }
+        return false;
+    }
+
+    /**
+     * 批量获取redis锁，redis异常或超时时释放已获取的锁并抛出异常
+     * @param lockKeys 锁
+     * @param lockValue 值
+     * @param expireTime 过期时间，单位为毫秒
+     * @return 是否全部获取到了锁
+     * @throws QueryTimeoutException 超过单次命令超时时间
+     */
+    public boolean tryLockAllStrict(Collection<String> lockKeys, String lockValue, long expireTime) {
+
+        List<byte[][]> groups = groupKeys(lockKeys);
+        byte[] value = rawValue(lockValue);
+        List<Long> results;
+        try {
+            results = evalAll(LOCK_ALL_SCRIPT, groups, value, String.valueOf(expireTime).getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            // 部分分组可能已加锁，释放脚本只删除本秘钥持有的key
+            releaseQuietly(groups, value);
+            throw e;
+        }
+        List<byte[][]> acquired = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            if (Objects.nonNull(results.get(i)) && results.get(i) > 0) {
+                acquired.add(groups.get(i));
+            }
+        }
+        if (acquired.size() == groups.size()) {
+            return true;
+        }
+        releaseQuietly(acquired, value);
+        return false;
+    }
+
+    /**
+     * 批量释放redis锁，单机redis下一次执行，集群下按槽位分组并行执行
+     * @param lockKeys 锁
+     * @param lockValue 值
+     * @return 释放的锁数量
+     */
+    public long releaseAllLuaLock(Collection<String> lockKeys, String lockValue) {
+
+        try {
+            return evalAll(RELEASE_ALL_SCRIPT, groupKeys(lockKeys), rawValue(lockValue)).stream()
+                    .filter(Objects::nonNull).mapToLong(Long::longValue).sum();
+        } catch (Exception e) {
+            log.error("批量释放redis锁异常，错误信息: ", e);
+        }
+        return 0L;
+    }
+
+    /**
+     * 计算锁在集群中的槽位，按序列化后的key计算，与redis实际使用的key一致
+     * @param lockKey 锁
+     * @return 槽位
+     */
+    public int slotOf(String lockKey) {
+
+        return ClusterSlotHashUtil.calculateSlot(rawKey(lockKey));
+    }
+
+    private void releaseQuietly(List<byte[][]> groups, byte[] value) {
+
+        if (groups.isEmpty()) {
+            return;
+        }
+        try {
+            evalAll(RELEASE_ALL_SCRIPT, groups, value);
+        } catch (Exception e) {
+            log.error("回滚批量redis锁异常，错误信息: ", e);
+        }
+    }
+
+    /**
+     * 去重，组内按key排序；仅集群连接按槽位分组，单机redis不拆分，保持整批原子且只需一次往返
+     */
+    private List<byte[][]> groupKeys(Collection<String> lockKeys) {
+
+        if (!isCluster()) {
+            return Collections.singletonList(new TreeSet<>(lockKeys).stream().map(this::rawKey).toArray(byte[][]::new));
+        }
+        Map<Integer, TreeSet<String>> slots = new TreeMap<>();
+        for (String lockKey : lockKeys) {
+            slots.computeIfAbsent(slotOf(lockKey), slot -> new TreeSet<>()).add(lockKey);
+        }
+        List<byte[][]> groups = new ArrayList<>(slots.size());
+        for (TreeSet<String> keys : slots.values()) {
+            groups.add(keys.stream().map(this::rawKey).toArray(byte[][]::new));
+        }
+        return groups;
+    }
+
+    private boolean isCluster() {
+
+        Boolean current = this.cluster;
+        if (current == null) {
+            current = Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection));
+            this.cluster = current;
+        }
+        return current;
+    }
+
+    private boolean eval(String script, byte[] key, byte[]... args) {
+
+        Long result = evalAll(script, Collections.singletonList(new byte[][]{key}), args).get(0);
+        return Objects.nonNull(result) && result > 0;
+    }
+
+    /**
+     * 每组key执行一次脚本，各组共用参数
+     */
+    private List<Long> evalAll(String script, List<byte[][]> keyGroups, byte[]... args) {
+
+        byte[] scriptBytes = script.getBytes(StandardCharsets.UTF_8);
+        List<Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<Long>>> asyncCommands = new ArrayList<>(keyGroups.size());
+        List<RedisCallback<Long>> syncCommands = new ArrayList<>(keyGroups.size());
+        for (byte[][] keys : keyGroups) {
+            byte[][] keysAndArgs = new byte[keys.length + args.length][];
+            System.arraycopy(keys, 0, keysAndArgs, 0, keys.length);
+            System.arraycopy(args, 0, keysAndArgs, keys.length, args.length);
+            asyncCommands.add(commands -> commands.eval(script, ScriptOutputType.INTEGER, keys, args));
+            syncCommands.add(connection -> connection.scriptingCommands().eval(scriptBytes, ReturnType.INTEGER, keys.length, keysAndArgs));
+        }
+        return executeAll(asyncCommands, syncCommands);
+    }
+
+    /**
+     * 执行锁命令：设置了超时时间且客户端为lettuce时，发送异步命令并限时等待；否则同步执行
+     */
+    private <T> T execute(Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>> asyncCommand, RedisCallback<T> syncCommand) {
+
+        return executeAll(Collections.singletonList(asyncCommand), Collections.singletonList(syncCommand)).get(0);
+    }
+
+    /**
+     * 批量执行锁命令：设置了超时时间且客户端为lettuce时，先发出全部异步命令再在同一截止时间内等待，
+     * 集群模式下不同分片的命令并行执行；否则逐条同步执行
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<T> executeAll(List<Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>>> asyncCommands,
+                                   List<RedisCallback<T>> syncCommands) {
+
+        long timeout = this.commandTimeout;
+        return redisTemplate.execute((RedisCallback<List<T>>) connection -> {
+            List<T> results = new ArrayList<>(syncCommands.size());
+            Object nativeConnection = connection.getNativeConnection();
+            if (timeout <= 0L || !(nativeConnection instanceof RedisClusterAsyncCommands)) {
+                for (RedisCallback<T> syncCommand : syncCommands) {
+                    results.add(syncCommand.doInRedis(connection));
+                }
+                return results;
+            }
+            List<RedisFuture<T>> futures = new ArrayList<>(asyncCommands.size());
+            for (Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>> asyncCommand : asyncCommands) {
+                futures.add(asyncCommand.apply((RedisClusterAsyncCommands<byte[], byte[]>) nativeConnection));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            for (RedisFuture<T> future : futures) {
+                try {
+                    results.add(future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    futures.forEach(pending -> pending.cancel(false));
+                    throw new QueryTimeoutException(String.format("Redis lock command timed out after %d ms", timeout), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RedisSystemException("Redis lock command interrupted", e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RedisSystemException("Redis lock command failed", e.getCause());
+                }
+            }
+            return results;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String lockKey) {
+
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(lockKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(String lockValue) {
+
+        return ((RedisSerializer<String>) redisTemplate.getValueSerializer()).serialize(lockValue);
+    }
+
+}
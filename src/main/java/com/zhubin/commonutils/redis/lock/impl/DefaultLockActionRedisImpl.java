@@ -5,6 +5,7 @@ import com.zhubin.commonutils.redis.lock.RedisKeyLockUtils;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Resource;
+import java.util.Collection;
 
 /**
  * @author zhubin
@@ -29,4 +30,22 @@ public class DefaultLockActionRedisImpl implements LockAction {
         return redisKeyLockUtils.releaseLuaLock(key, value);
     }
 
+    @Override
+    public boolean renewLock(String key, String value, long expireTime) {
+
+        return redisKeyLockUtils.renewLuaLock(key, value, expireTime);
+    }
+
+    @Override
+    public boolean tryLockAll(Collection<String> keys, String value, long expireTime) {
+
+        return redisKeyLockUtils.tryLockAll(keys, value, expireTime);
+    }
+
+    @Override
+    public void releaseAll(Collection<String> keys, String value) {
+
+        redisKeyLockUtils.releaseAllLuaLock(keys, value);
+    }
+
 }
@@ -0,0 +1,147 @@
+package com.zhubin.commonutils.redis.lock.impl;
+
+import com.zhubin.commonutils.redis.exception.DistributeLockUnavailableException;
+import com.zhubin.commonutils.redis.leader.LeaderElection;
+import com.zhubin.commonutils.redis.lock.LockAction;
+import com.zhubin.commonutils.redis.lock.LockCircuitBreaker;
+import com.zhubin.commonutils.redis.lock.RedisKeyLockUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 带熔断与降级的redis锁动作实现：redis异常或超时计入熔断器，熔断打开期间不再访问redis。
+ * redis不可用时，key匹配降级前缀的改用进程内锁(仅保证单机互斥)，其余直接抛出 DistributeLockUnavailableException，不再自旋等待。
+ * 选主key即使匹配降级前缀也不降级，进程内锁无法在节点间互斥，降级后每个节点都会成为主节点
+ */
+@Slf4j
+public class DegradableLockActionRedisImpl implements LockAction {
+
+    @Resource
+    private RedisKeyLockUtils redisKeyLockUtils;
+
+    private final LockCircuitBreaker circuitBreaker;
+
+    private final LocalLockActionImpl localLockAction = new LocalLockActionImpl();
+
+    /**
+     * 允许降级为进程内锁的key前缀
+     */
+    private final List<String> localKeyPrefixes;
+
+    public DegradableLockActionRedisImpl(LockCircuitBreaker circuitBreaker, Collection<String> localKeyPrefixes) {
+
+        this.circuitBreaker = circuitBreaker;
+        this.localKeyPrefixes = new ArrayList<>(localKeyPrefixes);
+    }
+
+    @Override
+    public boolean tryLock(String key, String value, long expireTime) {
+
+        Boolean result = callRedis(key, () -> redisKeyLockUtils.tryLockStrict(key, value, expireTime));
+        if (result != null) {
+            return result;
+        }
+        if (isLocalDegradable(key)) {
+            return localLockAction.tryLock(key, value, expireTime);
+        }
+        throw new DistributeLockUnavailableException(key, null);
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value) {
+
+        // 降级期间获取的进程内锁，在本地释放
+        if (localLockAction.isHeldBy(key, value)) {
+            return localLockAction.releaseLock(key, value);
+        }
+        // redis不可用时不抛出异常，避免在finally中覆盖业务结果，锁到期后自动失效
+        return Boolean.TRUE.equals(callRedis(key, () -> redisKeyLockUtils.releaseLuaLockStrict(key, value)));
+    }
+
+    @Override
+    public boolean renewLock(String key, String value, long expireTime) {
+
+        if (localLockAction.isHeldBy(key, value)) {
+            return localLockAction.renewLock(key, value, expireTime);
+        }
+        return Boolean.TRUE.equals(callRedis(key, () -> redisKeyLockUtils.renewLuaLockStrict(key, value, expireTime)));
+    }
+
+    @Override
+    public boolean tryLockAll(Collection<String> keys, String value, long expireTime) {
+
+        Boolean result = callRedis(String.join(",", keys), () -> redisKeyLockUtils.tryLockAllStrict(keys, value, expireTime));
+        if (result != null) {
+            return result;
+        }
+        if (keys.stream().allMatch(this::isLocalDegradable)) {
+            return localLockAction.tryLockAll(keys, value, expireTime);
+        }
+        throw new DistributeLockUnavailableException(String.join(",", keys), null);
+    }
+
+    @Override
+    public void releaseAll(Collection<String> keys, String value) {
+
+        List<String> remoteKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (localLockAction.isHeldBy(key, value)) {
+                localLockAction.releaseLock(key, value);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (!remoteKeys.isEmpty()) {
+            callRedis(String.join(",", remoteKeys), () -> redisKeyLockUtils.releaseAllLuaLock(remoteKeys, value) > 0L);
+        }
+    }
+
+    /**
+     * @return 熔断器
+     */
+    public LockCircuitBreaker getCircuitBreaker() {
+
+        return circuitBreaker;
+    }
+
+    /**
+     * 经熔断器调用redis
+     * @return 调用结果，熔断打开或调用失败时返回null
+     */
+    private Boolean callRedis(String key, Supplier<Boolean> redisCall) {
+
+        if (!circuitBreaker.allowRequest()) {
+            return null;
+        }
+        try {
+            Boolean result = redisCall.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (Exception e) {
+            circuitBreaker.onFailure();
+            log.error(String.format("Redis lock command failed, key = %s", key), e);
+            return null;
+        }
+    }
+
+    private boolean isLocalDegradable(String key) {
+
+        if (key.startsWith(LeaderElection.KEY_PREFIX)) {
+            return false;
+        }
+        for (String prefix : localKeyPrefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
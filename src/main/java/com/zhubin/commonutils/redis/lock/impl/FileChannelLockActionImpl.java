@@ -0,0 +1,410 @@
+package com.zhubin.commonutils.redis.lock.impl;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.zhubin.commonutils.redis.lock.LockAction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 基于内存映射锁表的锁动作实现，用于同一台机器上多个进程之间的协调，无需redis。
+ * 锁表按分段划分，每段由进程内 ReentrantLock 与 FileChannel 文件区域锁共同保护，段内保存 key哈希、过期时间、秘钥哈希；
+ * 过期语义与redis实现一致：过期的锁视为不存在，可被重新获取。
+ * 同一进程内不能对同一文件重复持有文件锁，通过 open 按规范路径共享实例
+ */
+@Slf4j
+public class FileChannelLockActionImpl implements LockAction, DisposableBean {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static final int MAGIC = 0x4C4F434B;
+
+    /**
+     * 文件头：魔数、槽位数、分段数
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * 槽位：key哈希高64位、key哈希低64位、过期时间、秘钥哈希
+     */
+    private static final int SLOT_BYTES = 32;
+
+    private static final int KEY_HI_OFFSET = 0;
+
+    private static final int KEY_LO_OFFSET = 8;
+
+    private static final int EXPIRE_AT_OFFSET = 16;
+
+    private static final int OWNER_OFFSET = 24;
+
+    /**
+     * 其他进程持有文件区域锁时的等待间隔
+     */
+    private static final long SPIN_NANOS = 1000L;
+
+    /**
+     * 按规范路径共享的实例
+     */
+    private static final Map<Path, FileChannelLockActionImpl> INSTANCES = new HashMap<>();
+
+    private final Path path;
+
+    /**
+     * 文件通道在线程被中断时会被关闭，关闭后重新打开；内存映射不受通道关闭影响
+     */
+    private volatile FileChannel channel;
+
+    private volatile boolean destroyed;
+
+    private final MappedByteBuffer table;
+
+    private final int segments;
+
+    private final int slotsPerSegment;
+
+    /**
+     * 同一进程内不能重复持有重叠的文件锁，先以进程内锁串行化
+     */
+    private final ReentrantLock[] segmentLocks;
+
+    /**
+     * 引用次数，由 INSTANCES 保护
+     */
+    private int references;
+
+    /**
+     * 打开锁表，同一进程内同一路径共享一个实例，每次打开对应一次 destroy
+     * @param path 锁表文件路径，同一台机器上需要协调的进程使用同一路径
+     * @param slots 槽位总数，即可同时持有的锁数量上限
+     * @param segments 分段数，需为2的幂且能整除槽位数
+     * @return 锁动作实现
+     */
+    public static FileChannelLockActionImpl open(String path, int slots, int segments) throws IOException {
+
+        Path canonical = canonicalPath(path);
+        synchronized (INSTANCES) {
+            FileChannelLockActionImpl instance = INSTANCES.get(canonical);
+            if (instance == null) {
+                instance = new FileChannelLockActionImpl(canonical, slots, segments);
+                INSTANCES.put(canonical, instance);
+            } else if (instance.segments != segments || instance.slotsPerSegment * segments != slots) {
+                throw new IllegalStateException(String.format("File lock table was opened with a different layout, path = %s", canonical));
+            }
+            instance.references++;
+            return instance;
+        }
+    }
+
+    private FileChannelLockActionImpl(Path path, int slots, int segments) throws IOException {
+
+        if (segments <= 0 || Integer.bitCount(segments) != 1) {
+            throw new IllegalArgumentException("The segments of file lock table must be a power of 2");
+        }
+        if (slots < segments || slots % segments != 0) {
+            throw new IllegalArgumentException("The slots of file lock table must be a multiple of segments");
+        }
+        this.segments = segments;
+        this.slotsPerSegment = slots / segments;
+        this.segmentLocks = new ReentrantLock[segments];
+        for (int i = 0; i < segments; i++) {
+            segmentLocks[i] = new ReentrantLock();
+        }
+
+        this.path = path;
+        long size = HEADER_BYTES + (long) slots * SLOT_BYTES;
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (FileLock ignored = channel.lock(0L, HEADER_BYTES, false)) {
+            if (channel.size() < size) {
+                channel.write(ByteBuffer.allocate(1), size - 1L);
+            }
+            this.table = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+            table.order(ByteOrder.BIG_ENDIAN);
+            initHeader(slots, segments);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean tryLock(String key, String value, long expireTime) {
+
+        long[] keyHash = keyHash(key);
+        long owner = ownerHash(value);
+        int segment = segmentOf(keyHash);
+        ReentrantLock localLock = segmentLocks[segment];
+        localLock.lock();
+        try {
+            FileLock fileLock = lockSegment(segment);
+            try {
+                return tryLock(segment, keyHash, owner, expireTime, key);
+            } finally {
+                release(fileLock);
+            }
+        } catch (IOException e) {
+            log.error("获取文件锁异常，错误信息: ", e);
+        } finally {
+            localLock.unlock();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value) {
+
+        return update(key, value, 0L);
+    }
+
+    @Override
+    public boolean renewLock(String key, String value, long expireTime) {
+
+        return update(key, value, expireTime);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+
+        synchronized (INSTANCES) {
+            if (--references > 0) {
+                return;
+            }
+            INSTANCES.remove(path);
+        }
+        synchronized (this) {
+            destroyed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * 持有段锁时在段内占用槽位
+     */
+    private boolean tryLock(int segment, long[] keyHash, long owner, long expireTime, String key) {
+
+        long now = System.currentTimeMillis();
+        int free = -1;
+        for (int slot = firstSlot(segment), end = slot + slotsPerSegment; slot < end; slot++) {
+            int position = position(slot);
+            boolean live = table.getLong(position + EXPIRE_AT_OFFSET) > now;
+            if (matches(position, keyHash)) {
+                if (live) {
+                    return false;
+                }
+                free = slot;
+                break;
+            }
+            if (!live && free < 0) {
+                free = slot;
+            }
+        }
+        if (free < 0) {
+            log.warn("File lock table segment is full, key = {}, segment = {}", key, segment);
+            return false;
+        }
+        int position = position(free);
+        table.putLong(position + KEY_HI_OFFSET, keyHash[0]);
+        table.putLong(position + KEY_LO_OFFSET, keyHash[1]);
+        table.putLong(position + OWNER_OFFSET, owner);
+        table.putLong(position + EXPIRE_AT_OFFSET, now + expireTime);
+        return true;
+    }
+
+    /**
+     * 仅当锁未过期且秘钥一致时修改：续约时重置过期时间，释放时清空槽位
+     * @param expireTime 新的过期时间，为0表示释放
+     */
+    private boolean update(String key, String value, long expireTime) {
+
+        long[] keyHash = keyHash(key);
+        long owner = ownerHash(value);
+        int segment = segmentOf(keyHash);
+        ReentrantLock localLock = segmentLocks[segment];
+        localLock.lock();
+        try {
+            FileLock fileLock = lockSegment(segment);
+            try {
+                return update(segment, keyHash, owner, expireTime);
+            } finally {
+                release(fileLock);
+            }
+        } catch (IOException e) {
+            log.error("修改文件锁异常，错误信息: ", e);
+        } finally {
+            localLock.unlock();
+        }
+        return false;
+    }
+
+    /**
+     * 持有段锁时修改段内槽位
+     */
+    private boolean update(int segment, long[] keyHash, long owner, long expireTime) {
+
+        long now = System.currentTimeMillis();
+        for (int slot = firstSlot(segment), end = slot + slotsPerSegment; slot < end; slot++) {
+            int position = position(slot);
+            if (!matches(position, keyHash)) {
+                continue;
+            }
+            if (table.getLong(position + EXPIRE_AT_OFFSET) <= now || table.getLong(position + OWNER_OFFSET) != owner) {
+                return false;
+            }
+            if (expireTime > 0L) {
+                table.putLong(position + EXPIRE_AT_OFFSET, now + expireTime);
+            } else {
+                table.putLong(position + EXPIRE_AT_OFFSET, 0L);
+                table.putLong(position + KEY_HI_OFFSET, 0L);
+                table.putLong(position + KEY_LO_OFFSET, 0L);
+                table.putLong(position + OWNER_OFFSET, 0L);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 释放段的文件区域锁，与槽位的修改结果分开处理：释放失败不影响已写入的结果，通道关闭时文件锁随之释放
+     */
+    private void release(FileLock fileLock) {
+
+        try {
+            fileLock.release();
+        } catch (IOException e) {
+            log.error("释放文件区域锁异常，错误信息: ", e);
+        }
+    }
+
+    /**
+     * 创建父目录并解析为规范路径，文件已存在时解析符号链接
+     */
+    private static Path canonicalPath(String path) throws IOException {
+
+        Path absolute = Paths.get(path).toAbsolutePath().normalize();
+        if (Files.exists(absolute)) {
+            return absolute.toRealPath();
+        }
+        Path parent = absolute.getParent();
+        if (parent == null) {
+            return absolute;
+        }
+        Files.createDirectories(parent);
+        return parent.toRealPath().resolve(absolute.getFileName());
+    }
+
+    private void initHeader(int slots, int segments) {
+
+        int magic = table.getInt(0);
+        if (magic == 0) {
+            table.putInt(4, slots);
+            table.putInt(8, segments);
+            table.putInt(0, MAGIC);
+            return;
+        }
+        if (magic != MAGIC || table.getInt(4) != slots || table.getInt(8) != segments) {
+            throw new IllegalStateException(String.format("File lock table was created with a different layout, path = %s, slots = %d, segments = %d",
+                    path, table.getInt(4), table.getInt(8)));
+        }
+    }
+
+    /**
+     * 以非阻塞方式获取段的文件区域锁，期间清除中断标记避免通道被关闭，结束后恢复
+     */
+    private FileLock lockSegment(int segment) throws IOException {
+
+        long position = position(firstSlot(segment));
+        long size = (long) slotsPerSegment * SLOT_BYTES;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                interrupted |= Thread.interrupted();
+                FileChannel current = this.channel;
+                try {
+                    FileLock lock = current.tryLock(position, size, false);
+                    if (lock != null) {
+                        return lock;
+                    }
+                } catch (ClosedChannelException e) {
+                    reopen(current);
+                    continue;
+                }
+                LockSupport.parkNanos(SPIN_NANOS);
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized void reopen(FileChannel closed) throws IOException {
+
+        if (destroyed) {
+            throw new ClosedChannelException();
+        }
+        if (this.channel == closed) {
+            log.warn("File lock channel was closed, reopen, path = {}", path);
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    private boolean matches(int position, long[] keyHash) {
+
+        return table.getLong(position + KEY_HI_OFFSET) == keyHash[0] && table.getLong(position + KEY_LO_OFFSET) == keyHash[1];
+    }
+
+    private int segmentOf(long[] keyHash) {
+
+        return (int) (keyHash[1] & (segments - 1));
+    }
+
+    private int firstSlot(int segment) {
+
+        return segment * slotsPerSegment;
+    }
+
+    private static int position(int slot) {
+
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    /**
+     * 128位key哈希，全0表示空槽位，需避开
+     */
+    private static long[] keyHash(String key) {
+
+        ByteBuffer bytes = ByteBuffer.wrap(HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8).asBytes());
+        long hi = bytes.getLong();
+        long lo = bytes.getLong();
+        if (hi == 0L && lo == 0L) {
+            lo = 1L;
+        }
+        return new long[]{hi, lo};
+    }
+
+    private static long ownerHash(String value) {
+
+        HashCode hash = HASH_FUNCTION.hashString(value, StandardCharsets.UTF_8);
+        return hash.asLong();
+    }
+
+}
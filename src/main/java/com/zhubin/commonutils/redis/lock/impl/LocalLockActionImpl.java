@@ -0,0 +1,84 @@
+package com.zhubin.commonutils.redis.lock.impl;
+
+import com.zhubin.commonutils.redis.lock.LockAction;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 进程内锁动作实现，语义与redis实现一致(秘钥校验、过期视为不存在)，仅在当前进程内互斥，用于redis不可用时降级
+ */
+public class LocalLockActionImpl implements LockAction {
+
+    private final Map<String, Entry> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryLock(String key, String value, long expireTime) {
+
+        Entry entry = new Entry(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(expireTime));
+        return locks.compute(key, (k, old) -> old == null || old.isExpired() ? entry : old) == entry;
+    }
+
+    @Override
+    public boolean releaseLock(String key, String value) {
+
+        boolean[] released = new boolean[1];
+        locks.computeIfPresent(key, (k, old) -> {
+            released[0] = !old.isExpired() && old.value.equals(value);
+            return released[0] || old.isExpired() ? null : old;
+        });
+        return released[0];
+    }
+
+    @Override
+    public boolean renewLock(String key, String value, long expireTime) {
+
+        boolean[] renewed = new boolean[1];
+        locks.computeIfPresent(key, (k, old) -> {
+            if (old.isExpired()) {
+                return null;
+            }
+            if (!old.value.equals(value)) {
+                return old;
+            }
+            renewed[0] = true;
+            return new Entry(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(expireTime));
+        });
+        return renewed[0];
+    }
+
+    /**
+     * 当前是否由该秘钥持有
+     * @param key 锁的key
+     * @param value 锁的秘钥
+     * @return 是否持有
+     */
+    public boolean isHeldBy(String key, String value) {
+
+        Entry entry = locks.get(key);
+        return entry != null && !entry.isExpired() && entry.value.equals(value);
+    }
+
+    private static final class Entry {
+
+        private final String value;
+
+        private final long expireAt;
+
+        private Entry(String value, long expireAt) {
+
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired() {
+
+            return System.nanoTime() - expireAt >= 0L;
+        }
+
+    }
+
+}
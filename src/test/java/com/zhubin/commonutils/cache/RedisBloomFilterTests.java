@@ -0,0 +1,296 @@
+package com.zhubin.commonutils.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 布隆过滤器测试：本地判定不存在时不访问redis、按许可向redis确认、重建替换与失败清理。
+ * redis以内存位图模拟，只实现过滤器用到的命令
+ */
+class RedisBloomFilterTests {
+
+    private static final String KEY = "bloom:user";
+
+    private static final String REBUILD_KEY = "{bloom:user}:rebuild";
+
+    private final FakeBitmapRedis redis = new FakeBitmapRedis();
+
+    @Test
+    void localMissDoesNotReachRedis() {
+
+        RedisBloomFilter filter = newFilter(0D);
+        filter.sync();
+        filter.put("user-1");
+        Assertions.assertTrue(filter.mightContain("user-1"));
+        int rejected = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (!filter.mightContain("absent-" + i)) {
+                rejected++;
+            }
+        }
+        Assertions.assertTrue(rejected > 950, String.valueOf(rejected));
+        Assertions.assertEquals(0, redis.getBitCount.get());
+    }
+
+    @Test
+    void notReadyFilterMightContainEverything() {
+
+        Assertions.assertTrue(newFilter(0D).mightContain("absent"));
+    }
+
+    @Test
+    void otherNodeWritesAreSeenAfterSync() {
+
+        RedisBloomFilter local = newFilter(0D);
+        RedisBloomFilter other = newFilter(0D);
+        local.sync();
+        other.put("user-1");
+        Assertions.assertFalse(local.mightContain("user-1"));
+        local.sync();
+        Assertions.assertTrue(local.mightContain("user-1"));
+    }
+
+    @Test
+    void remoteConfirmIsRateLimited() {
+
+        RedisBloomFilter local = newFilter(1D);
+        RedisBloomFilter other = newFilter(0D);
+        local.sync();
+        other.put("user-1");
+        other.put("user-2");
+        // 第一个许可确认成功，并写入本地
+        Assertions.assertTrue(local.mightContain("user-1"));
+        int confirmed = redis.getBitCount.get();
+        Assertions.assertTrue(confirmed > 0);
+        Assertions.assertTrue(local.mightContain("user-1"));
+        // 许可耗尽时以本地结果返回
+        Assertions.assertFalse(local.mightContain("user-2"));
+        Assertions.assertEquals(confirmed, redis.getBitCount.get());
+    }
+
+    @Test
+    void rebuildReplacesBitmapAndKeepsConcurrentWrites() {
+
+        RedisBloomFilter filter = newFilter(0D);
+        filter.sync();
+        filter.put("stale");
+        List<String> keys = IntStream.range(0, 2500).mapToObj(i -> "user-" + i).collect(Collectors.toList());
+        filter.rebuild(() -> new Iterator<Object>() {
+
+            private final Iterator<String> delegate = keys.iterator();
+
+            private int count;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                if (++count == 1500) {
+                    // 重建期间的写入同时写入临时位图，临时位图带过期时间
+                    Assertions.assertTrue(redis.expiring.contains(REBUILD_KEY));
+                    filter.put("concurrent");
+                }
+                return delegate.next();
+            }
+        });
+        Assertions.assertFalse(redis.bitmaps.containsKey(REBUILD_KEY));
+        Assertions.assertFalse(redis.expiring.contains(KEY));
+        Assertions.assertFalse(filter.mightContain("stale"));
+        Assertions.assertTrue(filter.mightContain("concurrent"));
+        keys.forEach(key -> Assertions.assertTrue(filter.mightContain(key), key));
+    }
+
+    @Test
+    void failedRebuildRemovesRebuildKey() {
+
+        RedisBloomFilter filter = newFilter(0D);
+        filter.sync();
+        filter.put("user-1");
+        Iterable<Object> failing = () -> IntStream.range(0, 2000).<Object>mapToObj(i -> {
+            if (i == 1500) {
+                throw new IllegalStateException("data source error");
+            }
+            return "user-" + i;
+        }).iterator();
+        Assertions.assertThrows(IllegalStateException.class, () -> filter.rebuild(failing));
+        Assertions.assertFalse(redis.bitmaps.containsKey(REBUILD_KEY));
+        // 原位图不受影响，后续写入不再双写
+        filter.put("user-2");
+        Assertions.assertFalse(redis.bitmaps.containsKey(REBUILD_KEY));
+        filter.sync();
+        Assertions.assertTrue(filter.mightContain("user-1"));
+        Assertions.assertTrue(filter.mightContain("user-2"));
+    }
+
+    private RedisBloomFilter newFilter(double remoteConfirmPermitsPerSecond) {
+
+        return new RedisBloomFilter("user", KEY, 10_000L, 0.01D, remoteConfirmPermitsPerSecond, redis);
+    }
+
+    /**
+     * 内存位图模拟的redis，位序与redis一致：第i位位于第 i >> 3 个字节，从高位开始
+     */
+    private static final class FakeBitmapRedis extends StringRedisTemplate {
+
+        private final Map<String, BitSet> bitmaps = new ConcurrentHashMap<>();
+
+        private final Set<String> expiring = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        private final AtomicInteger getBitCount = new AtomicInteger();
+
+        private List<Object> pipelineResults;
+
+        private final RedisConnection connection = (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RedisConnection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "stringCommands":
+                            return stringCommands();
+                        case "keyCommands":
+                            return keyCommands();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        @Override
+        public <T> T execute(RedisCallback<T> action) {
+
+            return action.doInRedis(connection);
+        }
+
+        @Override
+        public List<Object> executePipelined(RedisCallback<?> action) {
+
+            pipelineResults = new ArrayList<>();
+            try {
+                action.doInRedis(connection);
+                return pipelineResults;
+            } finally {
+                pipelineResults = null;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+
+            if (script.getScriptAsString().contains("rename")) {
+                bitmaps.put(keys.get(1), bitmaps.remove(keys.get(0)));
+                expiring.remove(keys.get(0));
+                expiring.remove(keys.get(1));
+                return (T) Long.valueOf(0L);
+            }
+            boolean rebuilding = bitmaps.containsKey(keys.get(1));
+            for (Object arg : args) {
+                setBit(keys.get(0), Long.parseLong((String) arg), true);
+                if (rebuilding) {
+                    setBit(keys.get(1), Long.parseLong((String) arg), true);
+                }
+            }
+            return (T) Long.valueOf(0L);
+        }
+
+        private RedisStringCommands stringCommands() {
+
+            return (RedisStringCommands) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{RedisStringCommands.class}, (proxy, method, args) -> {
+                        String key = args == null ? null : new String((byte[]) args[0], StandardCharsets.UTF_8);
+                        switch (method.getName()) {
+                            case "setBit":
+                                return result(setBit(key, (Long) args[1], (Boolean) args[2]));
+                            case "getBit":
+                                getBitCount.incrementAndGet();
+                                BitSet bits = bitmaps.get(key);
+                                return result(bits != null && bits.get(Math.toIntExact((Long) args[1])));
+                            case "get":
+                                return result(toRedisBytes(bitmaps.get(key)));
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private RedisKeyCommands keyCommands() {
+
+            return (RedisKeyCommands) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{RedisKeyCommands.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "del":
+                                long deleted = 0L;
+                                for (byte[] key : (byte[][]) args[0]) {
+                                    String name = new String(key, StandardCharsets.UTF_8);
+                                    expiring.remove(name);
+                                    deleted += bitmaps.remove(name) == null ? 0L : 1L;
+                                }
+                                return result(deleted);
+                            case "pExpire":
+                                String key = new String((byte[]) args[0], StandardCharsets.UTF_8);
+                                boolean exists = bitmaps.containsKey(key);
+                                if (exists) {
+                                    expiring.add(key);
+                                }
+                                return result(exists);
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private Object result(Object value) {
+
+            if (pipelineResults != null) {
+                pipelineResults.add(value);
+                return null;
+            }
+            return value;
+        }
+
+        private boolean setBit(String key, long offset, boolean value) {
+
+            BitSet bits = bitmaps.computeIfAbsent(key, k -> new BitSet());
+            int index = Math.toIntExact(offset);
+            boolean old = bits.get(index);
+            bits.set(index, value);
+            return old;
+        }
+
+        private static byte[] toRedisBytes(BitSet bits) {
+
+            if (bits == null) {
+                return null;
+            }
+            byte[] bytes = new byte[(bits.length() + 7) >>> 3];
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                bytes[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+            }
+            return bytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.zhubin.commonutils.cache;
+
+import com.zhubin.commonutils.redis.DistributeLockUtil;
+import com.zhubin.commonutils.redis.lock.LockAction;
+import com.zhubin.commonutils.redis.lock.impl.LocalLockActionImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 二级缓存测试：未命中只加载一次、逻辑过期后返回旧值并后台刷新、关闭后台刷新时由调用同步刷新、非sync读取不返回逻辑过期的值。
+ * redis以内存Map模拟，锁动作使用进程内实现
+ */
+class TwoLevelCacheTests {
+
+    private static final String CACHE_NAME = "user";
+
+    private static final String CACHE_KEY = CACHE_NAME + "::1";
+
+    private final Map<String, Object> remote = new ConcurrentHashMap<>();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(LockAction.class, LocalLockActionImpl::new);
+        context.refresh();
+        new DistributeLockUtil().setApplicationContext(context);
+
+        ValueOperations<String, Object> valueOperations = Mockito.mock(ValueOperations.class);
+        Mockito.when(valueOperations.get(Mockito.anyString())).thenAnswer(invocation -> remote.get(invocation.<String>getArgument(0)));
+        Mockito.doAnswer(invocation -> remote.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(Mockito.anyString(), Mockito.any(), Mockito.anyLong(), Mockito.any(TimeUnit.class));
+        RedisTemplate<String, Object> redisTemplate = Mockito.mock(RedisTemplate.class);
+        Mockito.when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cacheManager = new TwoLevelCacheManager(redisTemplate, Mockito.mock(StringRedisTemplate.class), "channel",
+                newSpec(true), Collections.singletonMap("sync-refresh", newSpec(false)));
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        cacheManager.destroy();
+    }
+
+    @Test
+    void missLoadsOnceAndStoresEnvelope() {
+
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(CACHE_NAME);
+        Assertions.assertEquals("v1", cache.get(1, () -> load("v1")));
+        Assertions.assertEquals("v1", cache.get(1, () -> load("v2")));
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertTrue(remote.get(CACHE_KEY) instanceof CacheEnvelope);
+        Assertions.assertEquals(1L, cache.getStats().getMisses());
+    }
+
+    @Test
+    void expiredValueIsReturnedWhileRefreshingInBackground() throws Exception {
+
+        remote.put(CACHE_KEY, new CacheEnvelope("stale", System.currentTimeMillis() - 1L, 1L));
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(CACHE_NAME);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // 刷新阻塞期间调用不等待加载，直接返回旧值，且只刷新一次
+        Assertions.assertEquals("stale", cache.get(1, () -> {
+            loading.countDown();
+            Assertions.assertTrue(release.await(5L, TimeUnit.SECONDS));
+            return load("fresh");
+        }));
+        Assertions.assertTrue(loading.await(5L, TimeUnit.SECONDS));
+        Assertions.assertEquals("stale", cache.get(1, () -> load("other")));
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!"fresh".equals(cache.get(1, () -> load("other"))) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        Assertions.assertEquals("fresh", cache.get(1, () -> load("other")));
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertFalse(((CacheEnvelope) remote.get(CACHE_KEY)).isExpired(System.currentTimeMillis()));
+    }
+
+    @Test
+    void expiredValueIsRefreshedByCallerWhenAsyncRefreshDisabled() {
+
+        remote.put("sync-refresh::1", new CacheEnvelope("stale", System.currentTimeMillis() - 1L, 1L));
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("sync-refresh");
+        Assertions.assertEquals("fresh", cache.get(1, () -> load("fresh")));
+        Assertions.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    void lookupTreatsExpiredValueAsMiss() {
+
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache(CACHE_NAME);
+        remote.put(CACHE_KEY, new CacheEnvelope("stale", System.currentTimeMillis() - 1L, 1L));
+        Assertions.assertNull(cache.get(1));
+        remote.put(CACHE_KEY, new CacheEnvelope("fresh", System.currentTimeMillis() + 60_000L, 1L));
+        Assertions.assertEquals("fresh", cache.get(1).get());
+        // 非sync写入后可直接读取
+        cache.put(2, "v2");
+        Assertions.assertEquals("v2", cache.get(2).get());
+    }
+
+    private String load(String value) {
+
+        loadCount.incrementAndGet();
+        return value;
+    }
+
+    private static CacheSpec newSpec(boolean asyncRefresh) {
+
+        CacheSpec spec = new CacheSpec();
+        spec.setStampedeProtection(true);
+        spec.setRefreshAheadBeta(0D);
+        spec.setAsyncRefresh(asyncRefresh);
+        return spec;
+    }
+
+}
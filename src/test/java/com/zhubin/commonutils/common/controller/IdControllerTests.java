@@ -0,0 +1,93 @@
+package com.zhubin.commonutils.common.controller;
+
+import com.zhubin.commonutils.redis.id.SegmentIdAllocator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 批量发号接口测试：binary/text格式输出、白名单校验、发号失败时不写出响应头与部分内容
+ */
+class IdControllerTests {
+
+    private static final String TAG = "order";
+
+    private final SegmentIdAllocator allocator = Mockito.mock(SegmentIdAllocator.class);
+
+    private final IdController controller = new IdController(provider(allocator), new String[]{TAG});
+
+    @Test
+    void writesBinaryIds() throws Exception {
+
+        fillSequentially();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.segment(TAG, 5000, "binary", response);
+        ByteBuffer body = ByteBuffer.wrap(response.getContentAsByteArray());
+        Assertions.assertEquals(Integer.BYTES + 5000L * Long.BYTES, response.getContentLengthLong());
+        Assertions.assertEquals(response.getContentLengthLong(), body.remaining());
+        Assertions.assertEquals(5000, body.getInt());
+        for (long expected = 1L; expected <= 5000L; expected++) {
+            Assertions.assertEquals(expected, body.getLong());
+        }
+    }
+
+    @Test
+    void writesTextIds() throws Exception {
+
+        fillSequentially();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.segment(TAG, 3, "text", response);
+        Assertions.assertEquals("1\n2\n3\n", response.getContentAsString());
+    }
+
+    @Test
+    void rejectsUnknownTagAndInvalidCount() throws Exception {
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.segment("user", 1, "binary", response);
+        Assertions.assertEquals(400, response.getStatus());
+        response = new MockHttpServletResponse();
+        controller.segment(TAG, 0, "binary", response);
+        Assertions.assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    void generatorFailureLeavesResponseUntouched() {
+
+        Mockito.doThrow(new IllegalStateException("redis down"))
+                .when(allocator).fill(Mockito.eq(TAG), Mockito.any(long[].class), Mockito.anyInt(), Mockito.anyInt());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Assertions.assertThrows(IllegalStateException.class, () -> controller.segment(TAG, 5000, "binary", response));
+        Assertions.assertFalse(response.isCommitted());
+        Assertions.assertNull(response.getHeader("Content-Length"));
+        Assertions.assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private void fillSequentially() {
+
+        Mockito.doAnswer(invocation -> {
+            long[] ids = invocation.getArgument(1);
+            int offset = invocation.getArgument(2);
+            int length = invocation.getArgument(3);
+            for (int i = 0; i < length; i++) {
+                ids[offset + i] = i + 1L;
+            }
+            return null;
+        }).when(allocator).fill(Mockito.eq(TAG), Mockito.any(long[].class), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<SegmentIdAllocator> provider(SegmentIdAllocator allocator) {
+
+        ObjectProvider<SegmentIdAllocator> provider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provider.getIfAvailable()).thenReturn(allocator);
+        return provider;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.zhubin.commonutils.common.filter;
+
+import com.zhubin.commonutils.common.utils.DeadlineContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 请求截止时间过滤器测试：按请求头设置截止时间，请求头缺失或格式错误时使用默认超时，请求结束后清除
+ */
+class DeadlineFilterTests {
+
+    private static final String HEADER = "X-Request-Timeout";
+
+    @AfterEach
+    void tearDown() {
+
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void headerSetsDeadline() throws Exception {
+
+        Long remaining = filter(new DeadlineFilter(HEADER, 0L), " 200 ");
+        Assertions.assertNotNull(remaining);
+        Assertions.assertTrue(remaining <= 200L);
+        Assertions.assertNull(DeadlineContext.current());
+    }
+
+    @Test
+    void exhaustedBudgetIsExpired() throws Exception {
+
+        Assertions.assertEquals(0L, filter(new DeadlineFilter(HEADER, 0L), "0"));
+        Assertions.assertEquals(0L, filter(new DeadlineFilter(HEADER, 0L), "-10"));
+    }
+
+    @Test
+    void missingOrInvalidHeaderUsesDefaultTimeout() throws Exception {
+
+        Assertions.assertNull(filter(new DeadlineFilter(HEADER, 0L), null));
+        Assertions.assertNull(filter(new DeadlineFilter(HEADER, 0L), "abc"));
+        Long remaining = filter(new DeadlineFilter(HEADER, 500L), "abc");
+        Assertions.assertNotNull(remaining);
+        Assertions.assertTrue(remaining > 200L && remaining <= 500L);
+    }
+
+    @Test
+    void deadlineIsClearedWhenChainFails() {
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HEADER, "200");
+        Assertions.assertThrows(ServletException.class, () -> new DeadlineFilter(HEADER, 0L)
+                .doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                    throw new ServletException("fail");
+                }));
+        Assertions.assertNull(DeadlineContext.current());
+    }
+
+    /**
+     * @return 请求处理时的剩余时间，未设置截止时间时为null
+     */
+    private static Long filter(DeadlineFilter filter, String header) throws ServletException, IOException {
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (header != null) {
+            request.addHeader(HEADER, header);
+        }
+        AtomicReference<Long> remaining = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> remaining.set(DeadlineContext.current() == null ? null : DeadlineContext.remainingMillis()));
+        return remaining.get();
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.zhubin.commonutils.common.pojo;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 游标分页测试：多取一条判断下一页的边界、游标编解码、按游标逐页遍历不重不漏
+ */
+class CursorResultTests {
+
+    @Test
+    void emptyRowsHaveNoMore() {
+
+        CursorResult<Long> result = CursorResult.of(Collections.emptyList(), 10, Long::longValue);
+        Assertions.assertTrue(result.getData().isEmpty());
+        Assertions.assertFalse(result.getHasMore());
+        Assertions.assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void exactlyPageSizeRowsHaveNoMore() {
+
+        CursorResult<Long> result = CursorResult.of(Arrays.asList(3L, 2L, 1L), 3, Long::longValue);
+        Assertions.assertEquals(Arrays.asList(3L, 2L, 1L), result.getData());
+        Assertions.assertFalse(result.getHasMore());
+        Assertions.assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void extraRowIsDroppedAndBecomesNextPage() {
+
+        CursorResult<Long> result = CursorResult.of(Arrays.asList(4L, 3L, 2L, 1L), 3, Long::longValue);
+        Assertions.assertEquals(Arrays.asList(4L, 3L, 2L), result.getData());
+        Assertions.assertTrue(result.getHasMore());
+        CursorResult.Cursor cursor = CursorResult.decodeCursor(result.getNextCursor());
+        Assertions.assertEquals(2L, cursor.getLastId());
+        Assertions.assertNull(cursor.getSortKey());
+        Assertions.assertEquals("id < ?", cursor.keysetPredicate("create_time", "id", true));
+        Assertions.assertArrayEquals(new Object[]{2L}, cursor.keysetParams());
+    }
+
+    @Test
+    void sortKeyCursorRoundTrip() {
+
+        List<long[]> rows = Arrays.asList(new long[]{-5L, 10L}, new long[]{-5L, 9L}, new long[]{-7L, 20L});
+        CursorResult<long[]> result = CursorResult.of(rows, 2, row -> row[0], row -> row[1]);
+        CursorResult.Cursor cursor = CursorResult.decodeCursor(result.getNextCursor());
+        Assertions.assertEquals(9L, cursor.getLastId());
+        Assertions.assertEquals(Long.valueOf(-5L), cursor.getSortKey());
+        Assertions.assertEquals("(create_time < ? OR (create_time = ? AND id < ?))", cursor.keysetPredicate("create_time", "id", true));
+        Assertions.assertArrayEquals(new Object[]{-5L, -5L, 9L}, cursor.keysetParams());
+        Assertions.assertTrue(cursor.isAfter(-5L, 8L, true));
+        Assertions.assertFalse(cursor.isAfter(-5L, 9L, true));
+        Assertions.assertTrue(cursor.isAfter(-7L, 20L, true));
+        Assertions.assertFalse(cursor.isAfter(-4L, 1L, true));
+    }
+
+    @Test
+    void pagingVisitsEveryRowOnce() {
+
+        // 排序键有重复，按 (排序键, ID) 倒序
+        List<long[]> table = new ArrayList<>();
+        for (long id = 1; id <= 23; id++) {
+            table.add(new long[]{id / 4, id});
+        }
+        table.sort((a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(b[1], a[1]));
+        int pageSize = 5;
+        List<Long> visited = new ArrayList<>();
+        String nextCursor = null;
+        do {
+            CursorResult.Cursor cursor = CursorResult.decodeCursor(nextCursor);
+            List<long[]> rows = table.stream()
+                    .filter(row -> cursor == null || cursor.isAfter(row[0], row[1], true))
+                    .limit(pageSize + 1)
+                    .collect(Collectors.toList());
+            CursorResult<long[]> result = CursorResult.of(rows, pageSize, row -> row[0], row -> row[1]);
+            result.getData().forEach(row -> visited.add(row[1]));
+            nextCursor = result.getNextCursor();
+        } while (nextCursor != null);
+        Assertions.assertEquals(table.stream().map(row -> row[1]).collect(Collectors.toList()), visited);
+    }
+
+    @Test
+    void rejectsIllegalArguments() {
+
+        Assertions.assertNull(CursorResult.decodeCursor(" "));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CursorResult.decodeCursor("abc"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CursorResult.of(Collections.<Long>emptyList(), 0, Long::longValue));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.zhubin.commonutils.common.pojo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 流式响应测试：输出与应用ObjectMapper序列化的Result一致、写出后关闭数据源、数据源异常时同样关闭
+ */
+class StreamResultTests {
+
+    @AfterEach
+    void tearDown() {
+
+        StreamResult.setObjectMapper(new ObjectMapper());
+    }
+
+    @Test
+    void outputMatchesResultWithApplicationObjectMapper() throws IOException {
+
+        ObjectMapper mapper = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        StreamResult.setObjectMapper(mapper);
+        List<Item> items = IntStream.range(0, 2500).mapToObj(i -> new Item(i, i % 2 == 0 ? null : "name-" + i))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(mapper.writeValueAsString(Result.ok(items)), write(Result.stream(items.iterator())));
+    }
+
+    @Test
+    void emptyDataIsEmptyArray() throws IOException {
+
+        Assertions.assertEquals("{\"code\":200,\"msg\":\"success\",\"data\":[]}", write(Result.stream(Stream.empty())));
+    }
+
+    @Test
+    void streamIsClosedAfterWriting() throws IOException {
+
+        AtomicBoolean closed = new AtomicBoolean();
+        write(Result.stream(Stream.of(1, 2, 3).onClose(() -> closed.set(true))));
+        Assertions.assertTrue(closed.get());
+    }
+
+    @Test
+    void streamIsClosedWhenDataSourceFails() {
+
+        AtomicBoolean closed = new AtomicBoolean();
+        Iterator<Integer> failing = Arrays.asList(1, 2).iterator();
+        Stream<Integer> stream = Stream.<Integer>generate(() -> {
+            if (failing.hasNext()) {
+                return failing.next();
+            }
+            throw new IllegalStateException("cursor closed");
+        }).onClose(() -> closed.set(true));
+        Assertions.assertThrows(IOException.class, () -> write(Result.stream(stream)));
+        Assertions.assertTrue(closed.get());
+    }
+
+    private static String write(StreamResult<?> result) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public static class Item {
+
+        private final int itemId;
+
+        private final String itemName;
+
+        Item(int itemId, String itemName) {
+
+            this.itemId = itemId;
+            this.itemName = itemName;
+        }
+
+        public int getItemId() {
+
+            return itemId;
+        }
+
+        public String getItemName() {
+
+            return itemName;
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.zhubin.commonutils.common.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 请求截止时间上下文测试：保留更早的截止时间、call结束后恢复、剩余时间与过期判断
+ */
+class DeadlineContextTests {
+
+    @AfterEach
+    void tearDown() {
+
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void noDeadlineByDefault() {
+
+        Assertions.assertNull(DeadlineContext.current());
+        Assertions.assertEquals(Long.MAX_VALUE, DeadlineContext.remainingMillis());
+        Assertions.assertFalse(DeadlineContext.isExpired());
+    }
+
+    @Test
+    void earlierDeadlineIsKept() {
+
+        DeadlineContext.start(1000L);
+        Long deadline = DeadlineContext.current();
+        DeadlineContext.start(60_000L);
+        Assertions.assertEquals(deadline, DeadlineContext.current());
+        DeadlineContext.start(10L);
+        Assertions.assertTrue(DeadlineContext.current() - deadline < 0L);
+        Assertions.assertTrue(DeadlineContext.remainingMillis() <= 10L);
+    }
+
+    @Test
+    void callRestoresPreviousDeadline() {
+
+        Assertions.assertEquals(Boolean.TRUE, DeadlineContext.call(1000L, () -> DeadlineContext.current() != null));
+        Assertions.assertNull(DeadlineContext.current());
+        DeadlineContext.start(60_000L);
+        Long deadline = DeadlineContext.current();
+        long inner = DeadlineContext.call(100L, DeadlineContext::remainingMillis);
+        Assertions.assertTrue(inner <= 100L);
+        Assertions.assertEquals(deadline, DeadlineContext.current());
+        Assertions.assertThrows(IllegalStateException.class, () -> DeadlineContext.call(100L, () -> {
+            throw new IllegalStateException("fail");
+        }));
+        Assertions.assertEquals(deadline, DeadlineContext.current());
+    }
+
+    @Test
+    void nonPositiveTimeoutIsExpired() {
+
+        DeadlineContext.start(-5L);
+        Assertions.assertTrue(DeadlineContext.isExpired());
+        Assertions.assertEquals(0L, DeadlineContext.remainingMillis());
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.zhubin.commonutils.common.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description ID紧凑编码测试：base62/Crockford base32 往返一致、按无符号数排序、非法输入校验
+ */
+class IdCodecTests {
+
+    private static final long[] EDGE_VALUES = {0L, 1L, 61L, 62L, Long.MAX_VALUE, Long.MIN_VALUE, -1L};
+
+    @Test
+    void base62RoundTrip() {
+
+        Random random = new Random(62L);
+        for (int i = 0; i < 10_000; i++) {
+            assertBase62RoundTrip(random.nextLong());
+        }
+        for (long value : EDGE_VALUES) {
+            assertBase62RoundTrip(value);
+        }
+    }
+
+    @Test
+    void base32RoundTrip() {
+
+        Random random = new Random(32L);
+        for (int i = 0; i < 10_000; i++) {
+            assertBase32RoundTrip(random.nextLong());
+        }
+        for (long value : EDGE_VALUES) {
+            assertBase32RoundTrip(value);
+        }
+    }
+
+    @Test
+    void base62PreservesUnsignedOrder() {
+
+        Random random = new Random(7L);
+        for (int i = 0; i < 10_000; i++) {
+            long a = random.nextLong();
+            long b = random.nextLong();
+            int expected = Integer.signum(Long.compareUnsigned(a, b));
+            int actual = Integer.signum(IdCodec.toBase62String(a).compareTo(IdCodec.toBase62String(b)));
+            Assertions.assertEquals(expected, actual, String.format("a = %d, b = %d", a, b));
+        }
+    }
+
+    @Test
+    void base32IsCaseInsensitiveAndAcceptsAliases() {
+
+        char[] chars = new char[IdCodec.BASE32_LENGTH];
+        IdCodec.encodeBase32(Long.MAX_VALUE, chars, 0);
+        String encoded = new String(chars);
+        Assertions.assertEquals(Long.MAX_VALUE, IdCodec.decodeBase32(encoded.toLowerCase(), 0));
+        Assertions.assertEquals(IdCodec.decodeBase32("0000000000001", 0), IdCodec.decodeBase32("OOOOOOOOOOOOI", 0));
+        Assertions.assertEquals(1L, IdCodec.decodeBase32("000000000000l", 0));
+    }
+
+    @Test
+    void encodeWritesAtOffset() {
+
+        char[] chars = new char[IdCodec.BASE62_LENGTH + 3];
+        int next = IdCodec.encodeBase62(123456789L, chars, 3);
+        Assertions.assertEquals(chars.length, next);
+        Assertions.assertEquals(123456789L, IdCodec.decodeBase62(new String(chars), 3));
+    }
+
+    @Test
+    void decodeRejectsIllegalInput() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.decodeBase62("0000000000-", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.decodeBase62("zzzzzzzzzzz", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.decodeBase32("G000000000000", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> IdCodec.decodeBase32("000000000000U", 0));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> IdCodec.decodeBase62("0000", 0));
+    }
+
+    private static void assertBase62RoundTrip(long value) {
+
+        char[] chars = new char[IdCodec.BASE62_LENGTH];
+        Assertions.assertEquals(IdCodec.BASE62_LENGTH, IdCodec.encodeBase62(value, chars, 0));
+        Assertions.assertEquals(value, IdCodec.decodeBase62(chars, 0));
+        Assertions.assertEquals(value, IdCodec.decodeBase62(IdCodec.toBase62String(value), 0));
+        ByteBuffer buffer = ByteBuffer.allocate(IdCodec.BASE62_LENGTH);
+        IdCodec.encodeBase62(value, buffer);
+        buffer.flip();
+        Assertions.assertEquals(value, IdCodec.decodeBase62(buffer));
+    }
+
+    private static void assertBase32RoundTrip(long value) {
+
+        char[] chars = new char[IdCodec.BASE32_LENGTH];
+        Assertions.assertEquals(IdCodec.BASE32_LENGTH, IdCodec.encodeBase32(value, chars, 0));
+        Assertions.assertEquals(value, IdCodec.decodeBase32(chars, 0));
+        ByteBuffer buffer = ByteBuffer.allocate(IdCodec.BASE32_LENGTH);
+        IdCodec.encodeBase32(value, buffer);
+        buffer.flip();
+        Assertions.assertEquals(value, IdCodec.decodeBase32(buffer));
+    }
+
+}
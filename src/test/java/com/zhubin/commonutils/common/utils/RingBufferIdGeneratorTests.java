@@ -0,0 +1,129 @@
+package com.zhubin.commonutils.common.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 环形缓冲区取号测试：多线程竞争下不重复，含填充落后时的降级生成；填满后按生成顺序取号、低于阈值时补充、关闭后不再填充
+ */
+class RingBufferIdGeneratorTests {
+
+    private static final int THREADS = 8;
+
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void takeIsUniqueUnderContention() throws Exception {
+
+        // 缓冲区远小于取号总量，覆盖槽位复用与降级生成
+        try (RingBufferIdGenerator generator = new RingBufferIdGenerator(1 << 10, 0.5D)) {
+            generator.start();
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                CountDownLatch startLatch = new CountDownLatch(1);
+                List<Future<long[]>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        long[] ids = new long[IDS_PER_THREAD];
+                        startLatch.await();
+                        for (int i = 0; i < ids.length; i++) {
+                            ids[i] = generator.take();
+                        }
+                        return ids;
+                    }));
+                }
+                startLatch.countDown();
+                Set<Long> seen = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+                for (Future<long[]> future : futures) {
+                    for (long id : future.get(30L, TimeUnit.SECONDS)) {
+                        Assertions.assertTrue(seen.add(id), String.format("duplicated id = %d", id));
+                    }
+                }
+                Assertions.assertEquals(THREADS * IDS_PER_THREAD, seen.size());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void takeFallsBackWhenEmpty() {
+
+        // 未启动填充线程，队列始终为空
+        try (RingBufferIdGenerator generator = new RingBufferIdGenerator(1 << 4, 0.5D)) {
+            long first = generator.take();
+            long second = generator.take();
+            Assertions.assertTrue(second > first);
+            Assertions.assertEquals(2L, generator.getFallbackCount());
+            Assertions.assertEquals(0L, generator.getRemaining());
+        }
+    }
+
+    @Test
+    void rejectsInvalidBufferSize() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RingBufferIdGenerator(1000, 0.5D));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RingBufferIdGenerator(1 << 4, 1D));
+    }
+
+    @Test
+    void filledBufferServesInOrderAndRefills() throws InterruptedException {
+
+        int bufferSize = 1 << 10;
+        try (RingBufferIdGenerator generator = new RingBufferIdGenerator(bufferSize, 0.5D)) {
+            generator.start();
+            awaitTrue(() -> generator.getRemaining() == bufferSize);
+            long previous = generator.take();
+            // 取到低于阈值，单线程取号按生成顺序递增
+            for (int i = 1; i < bufferSize * 3 / 4; i++) {
+                long id = generator.take();
+                Assertions.assertTrue(id > previous);
+                previous = id;
+            }
+            Assertions.assertEquals(0L, generator.getFallbackCount());
+            awaitTrue(() -> generator.getRemaining() == bufferSize);
+            Assertions.assertTrue(generator.take() > previous);
+        }
+    }
+
+    @Test
+    void closeStopsFilling() throws InterruptedException {
+
+        int bufferSize = 1 << 4;
+        RingBufferIdGenerator generator = new RingBufferIdGenerator(bufferSize, 0.5D);
+        generator.start();
+        awaitTrue(() -> generator.getRemaining() == bufferSize);
+        generator.close();
+        // 关闭后剩余的ID仍可取出，取完后降级为直接生成
+        for (int i = 0; i < bufferSize; i++) {
+            generator.take();
+        }
+        TimeUnit.MILLISECONDS.sleep(20L);
+        Assertions.assertEquals(0L, generator.getRemaining());
+        generator.take();
+        Assertions.assertEquals(1L, generator.getFallbackCount());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() - deadline < 0L, "Condition not met in time");
+            TimeUnit.MILLISECONDS.sleep(1L);
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+package com.zhubin.commonutils.common.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 雪花ID测试：批量生成唯一、单调递增且只写入指定区间；各时钟策略下的序列溢出、时钟回拨与最大漂移；替换节点ID时不产生重复ID
+ */
+class SnowflakeIdUtilsTests {
+
+    private static final int SEQUENCE_SIZE = 1 << SnowflakeBitLayout.DEFAULT.getSequenceBits();
+
+    /**
+     * 手动时钟，小于0时使用真实时钟
+     */
+    private final AtomicLong manualClock = new AtomicLong(-1L);
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+
+        // 等待真实时钟追上前面测试借用的时间
+        long last = SnowflakeIdUtils.extractTimestamp(SnowflakeIdUtils.generateId());
+        while (System.currentTimeMillis() <= last) {
+            TimeUnit.MILLISECONDS.sleep(1L);
+        }
+        SnowflakeIdUtils.setClock(() -> {
+            long manual = manualClock.get();
+            return manual < 0L ? System.currentTimeMillis() : manual;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        SnowflakeIdUtils.setClock(System::currentTimeMillis);
+        SnowflakeIdUtils.setClockStrategy(SnowflakeClockStrategy.BORROW, 1000L);
+    }
+
+    @Test
+    void fillIsUniqueAndIncreasing() {
+
+        // 超过单毫秒序列上限，覆盖序列溢出后切换到下一毫秒
+        long[] ids = new long[100_000];
+        SnowflakeIdUtils.fill(ids);
+        for (int i = 1; i < ids.length; i++) {
+            Assertions.assertTrue(ids[i] > ids[i - 1], String.format("ids[%d] = %d, ids[%d] = %d", i - 1, ids[i - 1], i, ids[i]));
+        }
+        long next = SnowflakeIdUtils.generateId();
+        Assertions.assertTrue(next > ids[ids.length - 1]);
+    }
+
+    @Test
+    void fillWritesOnlyTheGivenRange() {
+
+        long[] ids = new long[10];
+        SnowflakeIdUtils.fill(ids, 3, 4);
+        for (int i = 0; i < ids.length; i++) {
+            if (i >= 3 && i < 7) {
+                Assertions.assertTrue(ids[i] > 0L);
+            } else {
+                Assertions.assertEquals(0L, ids[i]);
+            }
+        }
+        Assertions.assertEquals(4L, Arrays.stream(ids, 3, 7).distinct().count());
+    }
+
+    @Test
+    void fillRejectsInvalidRange() {
+
+        long[] ids = new long[4];
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> SnowflakeIdUtils.fill(ids, -1, 2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> SnowflakeIdUtils.fill(ids, 3, 2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> SnowflakeIdUtils.fill(ids, 0, -1));
+    }
+
+    @Test
+    void parseMatchesGeneratedId() {
+
+        long before = System.currentTimeMillis();
+        long id = SnowflakeIdUtils.generateId();
+        long timestamp = SnowflakeIdUtils.extractTimestamp(id);
+        Assertions.assertTrue(timestamp >= before);
+        Assertions.assertTrue(id >= SnowflakeIdUtils.minIdOf(timestamp));
+        Assertions.assertTrue(id <= SnowflakeIdUtils.maxIdOf(timestamp));
+    }
+
+    @Test
+    void borrowUsesNextMillisecondOnOverflow() {
+
+        SnowflakeIdUtils.setClockStrategy(SnowflakeClockStrategy.BORROW, 1000L);
+        long start = freezeClock();
+        long borrowCount = SnowflakeIdUtils.getBorrowCount();
+        long[] ids = SnowflakeIdUtils.generateIds(SEQUENCE_SIZE * 3 + 1);
+        assertIncreasing(ids);
+        Assertions.assertEquals(start, SnowflakeIdUtils.extractTimestamp(ids[0]));
+        Assertions.assertEquals(start + 3L, SnowflakeIdUtils.extractTimestamp(ids[ids.length - 1]));
+        Assertions.assertEquals(borrowCount + 3L, SnowflakeIdUtils.getBorrowCount());
+        Assertions.assertEquals(3L, SnowflakeIdUtils.getBorrowedAheadMillis());
+    }
+
+    @Test
+    void borrowNeverRunsAheadOfMaxDrift() {
+
+        SnowflakeIdUtils.setClockStrategy(SnowflakeClockStrategy.BORROW, 2L);
+        long[] ids = new long[SEQUENCE_SIZE * 50];
+        SnowflakeIdUtils.fill(ids);
+        assertIncreasing(ids);
+        // 借用超过最大漂移时挂起等待真实时钟
+        Assertions.assertTrue(SnowflakeIdUtils.extractTimestamp(ids[ids.length - 1]) - System.currentTimeMillis() <= 2L);
+    }
+
+    @Test
+    void parkNeverRunsAheadOfClock() {
+
+        SnowflakeIdUtils.setClockStrategy(SnowflakeClockStrategy.PARK, 1000L);
+        long borrowCount = SnowflakeIdUtils.getBorrowCount();
+        long[] ids = new long[SEQUENCE_SIZE * 10];
+        SnowflakeIdUtils.fill(ids);
+        assertIncreasing(ids);
+        Assertions.assertTrue(SnowflakeIdUtils.extractTimestamp(ids[ids.length - 1]) <= System.currentTimeMillis());
+        Assertions.assertEquals(borrowCount, SnowflakeIdUtils.getBorrowCount());
+    }
+
+    @Test
+    void logicalAdvancesWithoutDriftLimit() {
+
+        SnowflakeIdUtils.setClockStrategy(SnowflakeClockStrategy.LOGICAL, 0L);
+        long start = freezeClock();
+        long begin = System.nanoTime();
+        long[] ids = SnowflakeIdUtils.generateIds(SEQUENCE_SIZE * 10);
+        assertIncreasing(ids);
+        Assertions.assertEquals(start + 9L, SnowflakeIdUtils.extractTimestamp(ids[ids.length - 1]));
+        Assertions.assertEquals(9L, SnowflakeIdUtils.getBorrowedAheadMillis());
+        // 时钟停止时也不等待
+        Assertions.assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(1L));
+    }
+
+    @Test
+    void regressionKeepsLastTimestamp() {
+
+        SnowflakeIdUtils.setClockStrategy(SnowflakeClockStrategy.BORROW, 1000L);
+        long start = freezeClock();
+        long first = SnowflakeIdUtils.generateId();
+        long regressionCount = SnowflakeIdUtils.getRegressionCount();
+        manualClock.set(start - 10_000L);
+        long second = SnowflakeIdUtils.generateId();
+        long third = SnowflakeIdUtils.generateId();
+        Assertions.assertTrue(second > first);
+        Assertions.assertTrue(third > second);
+        Assertions.assertEquals(start, SnowflakeIdUtils.extractTimestamp(third));
+        // 同一次回拨只统计一次
+        Assertions.assertEquals(regressionCount + 1L, SnowflakeIdUtils.getRegressionCount());
+    }
+
+    @Test
+    void parkWaitsForSmallRegression() {
+
+        SnowflakeIdUtils.setClockStrategy(SnowflakeClockStrategy.PARK, 1000L);
+        AtomicLong offset = new AtomicLong();
+        SnowflakeIdUtils.setClock(() -> System.currentTimeMillis() + offset.get());
+        long first = SnowflakeIdUtils.generateId();
+        offset.set(-50L);
+        long begin = System.nanoTime();
+        long second = SnowflakeIdUtils.generateId();
+        Assertions.assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(40L));
+        Assertions.assertTrue(second > first);
+        Assertions.assertTrue(SnowflakeIdUtils.extractTimestamp(second) >= SnowflakeIdUtils.extractTimestamp(first));
+    }
+
+    @Test
+    void reinstallDuringGenerationNeverDuplicates() throws Exception {
+
+        SnowflakeIdParts parts = SnowflakeIdUtils.parse(SnowflakeIdUtils.generateId());
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[20_000];
+                    startLatch.await();
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = SnowflakeIdUtils.generateId();
+                    }
+                    return ids;
+                }));
+            }
+            startLatch.countDown();
+            for (int i = 0; i < 200; i++) {
+                SnowflakeIdUtils.register(SnowflakeBitLayout.DEFAULT, parts.getDataCenterId(), parts.getWorkerId());
+                Thread.yield();
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                for (long id : future.get(60L, TimeUnit.SECONDS)) {
+                    Assertions.assertTrue(seen.add(id), String.format("duplicated id = %d", id));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 时钟停在真实时钟之后的下一毫秒
+     */
+    private long freezeClock() {
+
+        long start = Math.max(SnowflakeIdUtils.extractTimestamp(SnowflakeIdUtils.generateId()), System.currentTimeMillis()) + 1L;
+        manualClock.set(start);
+        return start;
+    }
+
+    private static void assertIncreasing(long[] ids) {
+
+        for (int i = 1; i < ids.length; i++) {
+            Assertions.assertTrue(ids[i] > ids[i - 1], String.format("ids[%d] = %d, ids[%d] = %d", i - 1, ids[i - 1], i, ids[i]));
+        }
+    }
+
+}
@@ -0,0 +1,452 @@
+package com.zhubin.commonutils.redis;
+
+import com.zhubin.commonutils.redis.annotation.DistributeLock;
+import com.zhubin.commonutils.redis.exception.DistributeLockTimeoutException;
+import com.zhubin.commonutils.redis.lock.LockAction;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 分布式锁竞争压测，默认不执行，使用 mvn test -Dtest=DistributeLockBenchmarkTests -Dlock.bench=true 运行。
+ * 未指定 lock.bench.redis.port 时从PATH启动本地 redis-server，找不到则跳过。
+ * 可配置项(系统属性)：lock.bench.threads、keys、hold-millis、expire-millis、waiting-millis、max-waiting-millis、duration-seconds、mode(util|aop|all)
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "lock.bench", matches = "true")
+class DistributeLockBenchmarkTests {
+
+    private static final String PREFIX = "lock.bench.";
+
+    private static Process redisProcess;
+
+    private static String redisHost;
+
+    private static int redisPort;
+
+    @Resource
+    private LockAction lockAction;
+
+    @Resource
+    private BenchLockService benchLockService;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+
+        redisHost = System.getProperty(PREFIX + "redis.host", "127.0.0.1");
+        String port = System.getProperty(PREFIX + "redis.port");
+        if (port != null) {
+            redisPort = Integer.parseInt(port);
+            return;
+        }
+        redisPort = freePort();
+        String server = System.getProperty(PREFIX + "redis.server", "redis-server");
+        try {
+            redisProcess = new ProcessBuilder(server, "--port", String.valueOf(redisPort), "--bind", redisHost,
+                    "--save", "", "--appendonly", "no")
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "lock-bench-redis.log"))
+                    .start();
+        } catch (IOException e) {
+            Assumptions.assumeTrue(false, "redis-server not found, set lock.bench.redis.port to use a running redis");
+        }
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!reachable(redisHost, redisPort)) {
+            Assumptions.assumeTrue(System.currentTimeMillis() < deadline && redisProcess.isAlive(), "redis-server failed to start");
+            TimeUnit.MILLISECONDS.sleep(50L);
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws InterruptedException {
+
+        if (redisProcess != null) {
+            redisProcess.destroy();
+            redisProcess.waitFor(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+
+        registry.add("spring.redis.host", () -> redisHost);
+        registry.add("spring.redis.port", () -> redisPort);
+    }
+
+    @Test
+    void contention() throws InterruptedException {
+
+        BenchOptions options = BenchOptions.fromSystemProperties();
+        log.info("Lock bench options: {}", options);
+        String mode = options.mode;
+        if ("util".equals(mode) || "all".equals(mode)) {
+            report("DistributeLockUtil", run(options, worker -> key -> {
+                DistributeLockContext context = DistributeLockContext.buildLockContext("bench:util:" + key,
+                        options.expireMillis, null, options.waitingMillis, true, options.maxWaitingMillis, lockAction);
+                try {
+                    context.execute(() -> worker.hold(key));
+                } finally {
+                    worker.spins(context.getSpunTimes());
+                }
+            }), options.waitingMillis, options.maxWaitingMillis, options);
+        }
+        if ("aop".equals(mode) || "all".equals(mode)) {
+            // 注解参数为编译期常量，不受 waiting-millis / max-waiting-millis 影响，按注解的实际值报告
+            report("@DistributeLock", run(options, worker -> key -> benchLockService.hold(key, () -> worker.hold(key))),
+                    BenchLockService.WAITING_TIME, BenchLockService.MAX_WAITING_TIME, options);
+        }
+    }
+
+    private BenchResult run(BenchOptions options, Function<Worker, LockCall> acquire) throws InterruptedException {
+
+        AtomicIntegerArray holders = new AtomicIntegerArray(options.keys);
+        AtomicLong violations = new AtomicLong();
+        List<Worker> workers = new ArrayList<>(options.threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(options.threads);
+        long endAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        for (int i = 0; i < options.threads; i++) {
+            Worker worker = new Worker(i, options, holders, violations);
+            workers.add(worker);
+            LockCall call = acquire.apply(worker);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    while (System.nanoTime() < endAt) {
+                        int key = worker.nextKey();
+                        worker.begin();
+                        try {
+                            call.call(key);
+                            worker.success();
+                        } catch (DistributeLockTimeoutException e) {
+                            worker.timeout();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "lock-bench-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return new BenchResult(workers, System.nanoTime() - begin, violations.get());
+    }
+
+    private void report(String name, BenchResult result, long waitingMillis, long maxWaitingMillis, BenchOptions options) {
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        long successes = 0L;
+        long timeouts = 0L;
+        long minAcquired = Long.MAX_VALUE;
+        long maxAcquired = 0L;
+        long maxSpins = -1L;
+        for (Worker worker : result.workers) {
+            successes += worker.successes;
+            timeouts += worker.timeouts;
+            minAcquired = Math.min(minAcquired, worker.successes);
+            maxAcquired = Math.max(maxAcquired, worker.successes);
+            maxSpins = Math.max(maxSpins, worker.maxSpins);
+        }
+        long attempts = successes + timeouts;
+        double seconds = result.elapsedNanos / 1e9;
+        log.info(String.format("%n[%s] threads=%d keys=%d hold=%dms waiting=%dms maxWaiting=%dms%n"
+                        + "  throughput : %.1f ops/s (%d acquired in %.1fs)%n"
+                        + "  acquire    : p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms%n"
+                        + "  timeouts   : %d (%.2f%%)%n"
+                        + "  fairness   : acquired per thread min=%d max=%d, max spins per call=%s%n"
+                        + "  exclusion  : %d violations",
+                name, options.threads, options.keys, options.holdMillis, waitingMillis, maxWaitingMillis,
+                successes / seconds, successes, seconds,
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.90)),
+                millis(percentile(latencies, 0.99)), millis(latencies.length == 0 ? 0L : latencies[latencies.length - 1]),
+                timeouts, attempts == 0L ? 0D : timeouts * 100D / attempts,
+                minAcquired == Long.MAX_VALUE ? 0L : minAcquired, maxAcquired, maxSpins < 0L ? "n/a" : String.valueOf(maxSpins),
+                result.violations));
+        Assertions.assertEquals(0L, result.violations, "Lock was held by more than one caller at the same time");
+    }
+
+    private static long percentile(long[] sorted, double p) {
+
+        if (sorted.length == 0) {
+            return 0L;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+
+        return nanos / 1e6;
+    }
+
+    private static int freePort() throws IOException {
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static boolean reachable(String host, int port) {
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface LockCall {
+
+        /**
+         * 获取锁并持有，超时抛出 DistributeLockTimeoutException
+         * @param key 锁的key下标
+         */
+        void call(int key);
+
+    }
+
+    /**
+     * 单个压测线程的统计，只由所属线程写入
+     */
+    private static class Worker {
+
+        private final BenchOptions options;
+
+        private final AtomicIntegerArray holders;
+
+        private final AtomicLong violations;
+
+        private long[] latencies = new long[1024];
+
+        private int size;
+
+        private long successes;
+
+        private long timeouts;
+
+        /**
+         * 单次调用最大自旋次数，注解方式无法取得锁对象，保持为-1
+         */
+        private long maxSpins = -1L;
+
+        private int cursor;
+
+        /**
+         * 本次调用开始时间
+         */
+        private long beginNanos;
+
+        /**
+         * 本次调用获取到锁的耗时，未获取到锁时为-1
+         */
+        private long acquiredNanos;
+
+        Worker(int id, BenchOptions options, AtomicIntegerArray holders, AtomicLong violations) {
+
+            this.options = options;
+            this.holders = holders;
+            this.violations = violations;
+            this.cursor = id;
+        }
+
+        int nextKey() {
+
+            return cursor++ % options.keys;
+        }
+
+        void begin() {
+
+            acquiredNanos = -1L;
+            beginNanos = System.nanoTime();
+        }
+
+        /**
+         * 进入临界区时记录获取锁的耗时，不含持有与释放锁的时间
+         */
+        Void hold(int key) {
+
+            acquiredNanos = System.nanoTime() - beginNanos;
+            if (holders.incrementAndGet(key) > 1) {
+                violations.incrementAndGet();
+            }
+            try {
+                if (options.holdMillis > 0L) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(options.holdMillis));
+                }
+            } finally {
+                holders.decrementAndGet(key);
+            }
+            return null;
+        }
+
+        void spins(Long spun) {
+
+            if (spun != null && spun > maxSpins) {
+                maxSpins = spun;
+            }
+        }
+
+        void success() {
+
+            ++successes;
+            record(acquiredNanos < 0L ? System.nanoTime() - beginNanos : acquiredNanos);
+        }
+
+        /**
+         * 超时记录放弃前的等待时间
+         */
+        void timeout() {
+
+            ++timeouts;
+            record(System.nanoTime() - beginNanos);
+        }
+
+        private void record(long nanos) {
+
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size << 1);
+            }
+            latencies[size++] = nanos;
+        }
+
+    }
+
+    private static class BenchResult {
+
+        private final List<Worker> workers;
+
+        private final long elapsedNanos;
+
+        private final long violations;
+
+        BenchResult(List<Worker> workers, long elapsedNanos, long violations) {
+
+            this.workers = workers;
+            this.elapsedNanos = elapsedNanos;
+            this.violations = violations;
+        }
+
+        long[] latencies() {
+
+            int total = 0;
+            for (Worker worker : workers) {
+                total += worker.size;
+            }
+            long[] all = new long[total];
+            int offset = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.latencies, 0, all, offset, worker.size);
+                offset += worker.size;
+            }
+            return all;
+        }
+
+    }
+
+    private static class BenchOptions {
+
+        private int threads;
+
+        private int keys;
+
+        private long holdMillis;
+
+        private long expireMillis;
+
+        private long waitingMillis;
+
+        private long maxWaitingMillis;
+
+        private long durationSeconds;
+
+        private String mode;
+
+        static BenchOptions fromSystemProperties() {
+
+            BenchOptions options = new BenchOptions();
+            options.threads = Integer.getInteger(PREFIX + "threads", 32);
+            options.keys = Integer.getInteger(PREFIX + "keys", 4);
+            options.holdMillis = Long.getLong(PREFIX + "hold-millis", 5L);
+            options.expireMillis = Long.getLong(PREFIX + "expire-millis", 3000L);
+            options.waitingMillis = Long.getLong(PREFIX + "waiting-millis", BenchLockService.WAITING_TIME);
+            options.maxWaitingMillis = Long.getLong(PREFIX + "max-waiting-millis", BenchLockService.MAX_WAITING_TIME);
+            options.durationSeconds = Long.getLong(PREFIX + "duration-seconds", 10L);
+            options.mode = System.getProperty(PREFIX + "mode", "all");
+            return options;
+        }
+
+        @Override
+        public String toString() {
+
+            return String.format("threads=%d, keys=%d, holdMillis=%d, expireMillis=%d, waitingMillis=%d, maxWaitingMillis=%d, durationSeconds=%d, mode=%s",
+                    threads, keys, holdMillis, expireMillis, waitingMillis, maxWaitingMillis, durationSeconds, mode);
+        }
+
+    }
+
+    /**
+     * 注解方式的压测目标，注解参数为编译期常量，自旋配置固定为 WAITING_TIME / MAX_WAITING_TIME
+     */
+    public static class BenchLockService {
+
+        static final long WAITING_TIME = 20L;
+
+        static final long MAX_WAITING_TIME = 1000L;
+
+        @DistributeLock(key = "'bench:aop:' + #key", spin = true, waitingTime = WAITING_TIME, maxWaitingTime = MAX_WAITING_TIME)
+        public Void hold(int key, Supplier<Void> body) {
+
+            return body.get();
+        }
+
+    }
+
+    @TestConfiguration
+    static class BenchConfig {
+
+        @Bean
+        public BenchLockService benchLockService() {
+
+            return new BenchLockService();
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.zhubin.commonutils.redis;
+
+import com.zhubin.commonutils.redis.exception.DistributeLockTimeoutException;
+import com.zhubin.commonutils.redis.lock.impl.LocalLockActionImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁对象截止时间测试：自旋等待不超过截止时间，到达截止时间后不再尝试获取锁，已过期时不访问锁实现
+ */
+class DistributeLockContextTests {
+
+    private static final String KEY = "order:1";
+
+    private static final long EXPIRE_MILLIS = 10_000L;
+
+    private final RecordingLockAction lockAction = new RecordingLockAction();
+
+    @Test
+    void spinStopsAtDeadlineWithoutLateAttempt() {
+
+        Assertions.assertTrue(lockAction.tryLock(KEY, "holder", EXPIRE_MILLIS));
+        lockAction.attempts.clear();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50L);
+        DistributeLockContext context = DistributeLockContext.buildLockContext(KEY, EXPIRE_MILLIS, null, 20L, true, 1000L,
+                lockAction, deadline);
+        Assertions.assertThrows(DistributeLockTimeoutException.class, () -> context.execute(() -> null));
+        long now = System.nanoTime();
+        Assertions.assertFalse(lockAction.attempts.isEmpty());
+        for (long attempt : lockAction.attempts) {
+            Assertions.assertTrue(attempt - deadline < 0L, "tryLock after the deadline");
+        }
+        // 最后一次等待不超过剩余时间
+        Assertions.assertTrue(now - deadline < TimeUnit.MILLISECONDS.toNanos(20L));
+    }
+
+    @Test
+    void expiredDeadlineFailsWithoutAttempt() {
+
+        DistributeLockContext context = DistributeLockContext.buildLockContext(KEY, EXPIRE_MILLIS, null, 20L, true, 1000L,
+                lockAction, System.nanoTime() - 1L);
+        Assertions.assertThrows(DistributeLockTimeoutException.class, () -> context.execute(() -> null));
+        Assertions.assertTrue(lockAction.attempts.isEmpty());
+    }
+
+    @Test
+    void spinAcquiresReleasedLockBeforeDeadline() {
+
+        Assertions.assertTrue(lockAction.tryLock(KEY, "holder", EXPIRE_MILLIS));
+        DistributeLockContext context = DistributeLockContext.buildLockContext(KEY, EXPIRE_MILLIS, null, 5L, true, 1000L,
+                lockAction, System.nanoTime() + TimeUnit.SECONDS.toNanos(5L));
+        lockAction.releaseAfterAttempts = 3;
+        Assertions.assertEquals("done", context.execute(() -> "done"));
+        Assertions.assertTrue(context.getSpunTimes() >= 1L);
+    }
+
+    private static final class RecordingLockAction extends LocalLockActionImpl {
+
+        private final List<Long> attempts = new CopyOnWriteArrayList<>();
+
+        private int releaseAfterAttempts = -1;
+
+        @Override
+        public boolean tryLock(String key, String value, long expireTime) {
+
+            attempts.add(System.nanoTime());
+            if (attempts.size() == releaseAfterAttempts) {
+                releaseLock(KEY, "holder");
+            }
+            return super.tryLock(key, value, expireTime);
+        }
+
+    }
+
+}
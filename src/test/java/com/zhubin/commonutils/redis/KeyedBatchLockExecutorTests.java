@@ -0,0 +1,162 @@
+package com.zhubin.commonutils.redis;
+
+import com.zhubin.commonutils.redis.exception.DistributeLockTimeoutException;
+import com.zhubin.commonutils.redis.lock.LockAction;
+import com.zhubin.commonutils.redis.lock.impl.LocalLockActionImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 按key合并执行测试：同一key的任务合并到少量加锁中按提交顺序执行，获取锁失败时排队任务全部失败，线程池拒绝时由调用线程排空。
+ * 锁动作使用进程内实现并统计加锁次数，线程池由测试手动驱动
+ */
+class KeyedBatchLockExecutorTests {
+
+    private static final long EXPIRE_MILLIS = 10_000L;
+
+    private final CountingLockAction lockAction = new CountingLockAction();
+
+    private final Queue<Runnable> scheduled = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(LockAction.class, () -> lockAction);
+        context.refresh();
+        new DistributeLockUtil().setApplicationContext(context);
+    }
+
+    @Test
+    void tasksOfSameKeyAreBatched() throws Exception {
+
+        KeyedBatchLockExecutor batchExecutor = new KeyedBatchLockExecutor(scheduled::add, 4, 5_000L, EXPIRE_MILLIS, null, null);
+        List<Integer> executed = new ArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int index = i;
+            futures.add(batchExecutor.submit("account:1", () -> {
+                executed.add(index);
+                return index;
+            }));
+        }
+        // 同一key只调度一次排空
+        Assertions.assertEquals(1, scheduled.size());
+        Assertions.assertEquals(1, batchExecutor.getPendingKeys());
+        runScheduled();
+        for (int i = 0; i < futures.size(); i++) {
+            Assertions.assertEquals(i, futures.get(i).get(1L, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(futures.size(), executed.size());
+        for (int i = 0; i < executed.size(); i++) {
+            Assertions.assertEquals(i, executed.get(i));
+        }
+        // 10个任务，每批最多4个
+        Assertions.assertEquals(3, lockAction.tryLockCount.get());
+        Assertions.assertEquals(0, batchExecutor.getPendingKeys());
+    }
+
+    @Test
+    void differentKeysDrainSeparately() throws Exception {
+
+        KeyedBatchLockExecutor batchExecutor = new KeyedBatchLockExecutor(scheduled::add, 16, 5_000L, EXPIRE_MILLIS, null, null);
+        CompletableFuture<Void> first = batchExecutor.submit("account:1", () -> { });
+        CompletableFuture<Void> second = batchExecutor.submit("account:2", () -> { });
+        Assertions.assertEquals(2, scheduled.size());
+        runScheduled();
+        first.get(1L, TimeUnit.SECONDS);
+        second.get(1L, TimeUnit.SECONDS);
+        Assertions.assertEquals(2, lockAction.tryLockCount.get());
+    }
+
+    @Test
+    void queuedTasksFailWhenLockIsHeld() throws Exception {
+
+        Assertions.assertTrue(lockAction.tryLock("account:1", "other", EXPIRE_MILLIS));
+        KeyedBatchLockExecutor batchExecutor = new KeyedBatchLockExecutor(scheduled::add, 4, 5_000L, EXPIRE_MILLIS, null, null);
+        AtomicInteger executed = new AtomicInteger();
+        CompletableFuture<Integer> first = batchExecutor.submit("account:1", executed::incrementAndGet);
+        CompletableFuture<Integer> second = batchExecutor.submit("account:1", executed::incrementAndGet);
+        runScheduled();
+        for (CompletableFuture<Integer> future : Arrays.asList(first, second)) {
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(1L, TimeUnit.SECONDS));
+            Assertions.assertTrue(e.getCause() instanceof DistributeLockTimeoutException);
+        }
+        Assertions.assertEquals(0, executed.get());
+        Assertions.assertEquals(0, batchExecutor.getPendingKeys());
+    }
+
+    @Test
+    void failedTaskDoesNotAffectOthers() throws Exception {
+
+        KeyedBatchLockExecutor batchExecutor = new KeyedBatchLockExecutor(scheduled::add, 4, 5_000L, EXPIRE_MILLIS, null, null);
+        CompletableFuture<Integer> failed = batchExecutor.submit("account:1", () -> {
+            throw new IllegalStateException("task failed");
+        });
+        CompletableFuture<Integer> succeeded = batchExecutor.submit("account:1", () -> 1);
+        runScheduled();
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> failed.get(1L, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+        Assertions.assertEquals(1, succeeded.get(1L, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, lockAction.tryLockCount.get());
+    }
+
+    @Test
+    void rejectedExecutorDrainsInCallerThread() throws Exception {
+
+        KeyedBatchLockExecutor batchExecutor = new KeyedBatchLockExecutor(task -> {
+            throw new RejectedExecutionException("rejected");
+        }, 4, 5_000L, EXPIRE_MILLIS, null, null);
+        CompletableFuture<Integer> future = batchExecutor.submit("account:1", () -> 1);
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertEquals(1, future.get());
+        Assertions.assertEquals(0, batchExecutor.getPendingKeys());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new KeyedBatchLockExecutor(Runnable::run, 0, 100L, EXPIRE_MILLIS, null, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new KeyedBatchLockExecutor(Runnable::run, 4, EXPIRE_MILLIS, EXPIRE_MILLIS, null, null));
+    }
+
+    private void runScheduled() {
+
+        Runnable runnable;
+        while ((runnable = scheduled.poll()) != null) {
+            runnable.run();
+        }
+    }
+
+    /**
+     * 统计加锁次数的进程内锁动作
+     */
+    private static final class CountingLockAction extends LocalLockActionImpl {
+
+        private final AtomicInteger tryLockCount = new AtomicInteger();
+
+        @Override
+        public boolean tryLock(String key, String value, long expireTime) {
+
+            tryLockCount.incrementAndGet();
+            return super.tryLock(key, value, expireTime);
+        }
+
+    }
+
+}
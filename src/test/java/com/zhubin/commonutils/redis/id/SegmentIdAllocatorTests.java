@@ -0,0 +1,158 @@
+package com.zhubin.commonutils.redis.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 号段ID分配测试：号段连续发放、多线程下不重复且不丢段、线程池关闭后同步租用。
+ * redis计数器以内存计数模拟，租用时随机延迟以放大预取竞争
+ */
+class SegmentIdAllocatorTests {
+
+    private static final String TAG = "order";
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger leaseCount = new AtomicInteger();
+
+    private SegmentIdAllocator allocator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+
+        ValueOperations<String, String> valueOperations = Mockito.mock(ValueOperations.class);
+        Mockito.when(valueOperations.increment(Mockito.anyString(), Mockito.anyLong())).thenAnswer(invocation -> {
+            leaseCount.incrementAndGet();
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toNanos(1L)));
+            return counters.computeIfAbsent(invocation.getArgument(0), k -> new AtomicLong())
+                    .addAndGet(invocation.getArgument(1));
+        });
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        Mockito.when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        allocator = new SegmentIdAllocator("segment:", 100L, 0.5D);
+        ReflectionTestUtils.setField(allocator, "stringRedisTemplate", stringRedisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        allocator.destroy();
+    }
+
+    @Test
+    void idsAreContiguousAcrossSegments() {
+
+        for (long expected = 1L; expected <= 1000L; expected++) {
+            Assertions.assertEquals(expected, allocator.nextId(TAG));
+        }
+        long[] ids = new long[250];
+        allocator.fill(TAG, ids);
+        for (int i = 0; i < ids.length; i++) {
+            Assertions.assertEquals(1001L + i, ids[i]);
+        }
+    }
+
+    @Test
+    void noIdIsDuplicatedOrLostUnderContention() throws Exception {
+
+        int threads = 8;
+        int rounds = 3000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean batch = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    long[] chunk = new long[7];
+                    startLatch.await();
+                    for (int i = 0; i < rounds; i++) {
+                        if (batch) {
+                            allocator.fill(TAG, chunk);
+                            for (long id : chunk) {
+                                ids.add(id);
+                            }
+                        } else {
+                            ids.add(allocator.nextId(TAG));
+                        }
+                    }
+                    return ids;
+                }));
+            }
+            startLatch.countDown();
+            BitSet seen = new BitSet();
+            int total = 0;
+            for (Future<List<Long>> future : futures) {
+                for (long id : future.get(60L, TimeUnit.SECONDS)) {
+                    Assertions.assertFalse(seen.get(Math.toIntExact(id)), String.format("duplicated id = %d", id));
+                    seen.set(Math.toIntExact(id));
+                    total++;
+                }
+            }
+            // 已耗尽的号段全部发放、当前号段从头连续发放，发放的ID恰好是 [1, total]
+            Assertions.assertEquals(total, seen.cardinality());
+            Assertions.assertEquals(total, seen.length() - 1);
+            Assertions.assertFalse(seen.get(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void leasesSynchronouslyAfterDestroy() {
+
+        allocator.nextId(TAG);
+        allocator.destroy();
+        long[] ids = new long[300];
+        allocator.fill(TAG, ids);
+        for (int i = 0; i < ids.length; i++) {
+            Assertions.assertEquals(2L + i, ids[i]);
+        }
+    }
+
+    @Test
+    void stepAppliesToNextLease() {
+
+        allocator.setStep(TAG, 10L);
+        for (long expected = 1L; expected <= 25L; expected++) {
+            Assertions.assertEquals(expected, allocator.nextId(TAG));
+        }
+        Assertions.assertTrue(leaseCount.get() >= 3);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> allocator.setStep(TAG, 0L));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> allocator.nextId(" "));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> allocator.fill(TAG, new long[4], 2, 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SegmentIdAllocator("segment:", 0L, 0.5D));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SegmentIdAllocator("segment:", 100L, 1D));
+    }
+
+}
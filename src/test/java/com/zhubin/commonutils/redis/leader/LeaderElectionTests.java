@@ -0,0 +1,135 @@
+package com.zhubin.commonutils.redis.leader;
+
+import com.zhubin.commonutils.redis.lock.impl.LocalLockActionImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 选主测试：同一时间只有一个主节点、主节点退出后其他节点接任、单次续约失败不放弃、redis不可用时租约到期后放弃。
+ * 锁动作使用进程内实现，可模拟续约失败与redis不可用
+ */
+class LeaderElectionTests {
+
+    private static final long LEASE_MILLIS = 300L;
+
+    private final FlakyLockAction lockAction = new FlakyLockAction();
+
+    private final List<LeaderElection> elections = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+
+        elections.forEach(LeaderElection::destroy);
+    }
+
+    @Test
+    void onlyOneLeaderAndFollowerTakesOver() throws InterruptedException {
+
+        LeaderElection first = start();
+        awaitTrue(first::isLeader);
+        LeaderElection second = start();
+        // 跨越多个续约周期仍只有一个主节点
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(first.isLeader() && second.isLeader());
+            TimeUnit.MILLISECONDS.sleep(LEASE_MILLIS / 5L);
+        }
+        Assertions.assertTrue(first.isLeader());
+        Assertions.assertFalse(second.isLeader());
+        first.destroy();
+        Assertions.assertFalse(first.isLeader());
+        awaitTrue(second::isLeader);
+    }
+
+    @Test
+    void transientRenewFailureKeepsLeadership() throws InterruptedException {
+
+        LeaderElection election = start();
+        awaitTrue(election::isLeader);
+        int renewed = lockAction.renewCount.get();
+        lockAction.failedRenews.set(1);
+        awaitTrue(() -> lockAction.renewCount.get() >= renewed + 3);
+        Assertions.assertTrue(election.isLeader());
+        Assertions.assertEquals(0, lockAction.failedRenews.get());
+    }
+
+    @Test
+    void leadershipEndsWithLocalLeaseWhenRedisIsUnavailable() throws InterruptedException {
+
+        LeaderElection election = start();
+        awaitTrue(election::isLeader);
+        long unavailableAt = System.nanoTime();
+        lockAction.unavailable.set(true);
+        awaitTrue(() -> !election.isLeader());
+        // 本地租约从发起请求前计算，不会晚于租约时长放弃
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - unavailableAt);
+        Assertions.assertTrue(elapsed <= LEASE_MILLIS + 100L, String.valueOf(elapsed));
+    }
+
+    @Test
+    void rejectsNonPositiveLeaseTime() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LeaderElection("job", 0L));
+    }
+
+    private LeaderElection start() {
+
+        LeaderElection election = new LeaderElection("job", LEASE_MILLIS);
+        ReflectionTestUtils.setField(election, "lockAction", lockAction);
+        election.afterPropertiesSet();
+        elections.add(election);
+        return election;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() - deadline < 0L, "Condition not met in time");
+            TimeUnit.MILLISECONDS.sleep(5L);
+        }
+    }
+
+    /**
+     * 可模拟续约超时与redis不可用的进程内锁动作
+     */
+    private static final class FlakyLockAction extends LocalLockActionImpl {
+
+        private final AtomicInteger failedRenews = new AtomicInteger();
+
+        private final AtomicInteger renewCount = new AtomicInteger();
+
+        private final AtomicBoolean unavailable = new AtomicBoolean();
+
+        @Override
+        public boolean tryLock(String key, String value, long expireTime) {
+
+            if (unavailable.get()) {
+                throw new IllegalStateException("redis unavailable");
+            }
+            return super.tryLock(key, value, expireTime);
+        }
+
+        @Override
+        public boolean renewLock(String key, String value, long expireTime) {
+
+            renewCount.incrementAndGet();
+            if (unavailable.get() || failedRenews.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new IllegalStateException("redis timeout");
+            }
+            return super.renewLock(key, value, expireTime);
+        }
+
+    }
+
+}
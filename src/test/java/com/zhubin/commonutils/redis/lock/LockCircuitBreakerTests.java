@@ -0,0 +1,76 @@
+package com.zhubin.commonutils.redis.lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁命令熔断器状态转换测试：关闭 -> 打开 -> 半开(单个探测) -> 关闭/重新打开
+ */
+class LockCircuitBreakerTests {
+
+    private static final long OPEN_MILLIS = 50L;
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+
+        LockCircuitBreaker breaker = new LockCircuitBreaker(3, OPEN_MILLIS);
+        breaker.onFailure();
+        breaker.onFailure();
+        Assertions.assertEquals(LockCircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        Assertions.assertEquals(LockCircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void successResetsConsecutiveFailures() {
+
+        LockCircuitBreaker breaker = new LockCircuitBreaker(2, OPEN_MILLIS);
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        Assertions.assertEquals(LockCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbeAndClosesOnSuccess() throws InterruptedException {
+
+        LockCircuitBreaker breaker = new LockCircuitBreaker(1, OPEN_MILLIS);
+        breaker.onFailure();
+        TimeUnit.MILLISECONDS.sleep(OPEN_MILLIS + 10L);
+        Assertions.assertEquals(LockCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assertions.assertTrue(breaker.allowRequest());
+        Assertions.assertFalse(breaker.allowRequest());
+        breaker.onSuccess();
+        Assertions.assertEquals(LockCircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertTrue(breaker.allowRequest());
+        Assertions.assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedProbeReopens() throws InterruptedException {
+
+        LockCircuitBreaker breaker = new LockCircuitBreaker(1, OPEN_MILLIS);
+        breaker.onFailure();
+        TimeUnit.MILLISECONDS.sleep(OPEN_MILLIS + 10L);
+        Assertions.assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        Assertions.assertEquals(LockCircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.allowRequest());
+        TimeUnit.MILLISECONDS.sleep(OPEN_MILLIS + 10L);
+        Assertions.assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LockCircuitBreaker(0, OPEN_MILLIS));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LockCircuitBreaker(1, 0L));
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.zhubin.commonutils.redis.lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁key压缩编码测试：定长、确定性、哈希标签保留、保留前缀与调试映射
+ */
+class LockKeyCodecTests {
+
+    @Test
+    void encodeIsDeterministicAndFixedLength() {
+
+        LockKeyCodec codec = new LockKeyCodec("lk:", false, 0L);
+        String encoded = codec.encode("order:20261019:123456");
+        Assertions.assertEquals(encoded, codec.encode("order:20261019:123456"));
+        Assertions.assertNotEquals(encoded, codec.encode("order:20261019:123457"));
+        Assertions.assertTrue(encoded.startsWith("lk:"));
+        Assertions.assertEquals("lk:".length() + LockKeyCodec.HASH_LENGTH, encoded.length());
+        Assertions.assertEquals(encoded.length(), codec.encode("a").length());
+    }
+
+    @Test
+    void hashTagIsPreserved() {
+
+        LockKeyCodec codec = new LockKeyCodec("lk:", false, 0L);
+        String encoded = codec.encode("order:{user-1}:123");
+        Assertions.assertTrue(encoded.startsWith("lk:{user-1}"));
+        Assertions.assertEquals("lk:{user-1}".length() + LockKeyCodec.HASH_LENGTH, encoded.length());
+        // 同一标签不同key哈希不同
+        Assertions.assertNotEquals(encoded, codec.encode("order:{user-1}:124"));
+        // 只取第一个非空标签
+        Assertions.assertTrue(codec.encode("a{x}b{y}").startsWith("lk:{x}"));
+        // 空标签按整个key哈希，不保留
+        Assertions.assertEquals("lk:".length() + LockKeyCodec.HASH_LENGTH, codec.encode("order:{}:123").length());
+        Assertions.assertEquals("lk:".length() + LockKeyCodec.HASH_LENGTH, codec.encode("order:{123").length());
+    }
+
+    @Test
+    void preservedPrefixIsKept() {
+
+        LockKeyCodec codec = new LockKeyCodec("lk:", Arrays.asList("order:", "stock:"), false, 0L);
+        String encoded = codec.encode("order:{user-1}:123");
+        Assertions.assertTrue(encoded.startsWith(codec.encodePrefix("order:")));
+        Assertions.assertTrue(encoded.startsWith("lk:order:{user-1}"));
+        Assertions.assertTrue(codec.encode("stock:1").startsWith("lk:stock:"));
+        Assertions.assertFalse(codec.encode("pay:1").startsWith(codec.encodePrefix("order:")));
+        // 保留前缀只影响编码形式，哈希仍基于完整key
+        LockKeyCodec plain = new LockKeyCodec("lk:", Collections.emptyList(), false, 0L);
+        Assertions.assertEquals(plain.encode("order:1").substring("lk:".length()),
+                codec.encode("order:1").substring("lk:order:".length()));
+    }
+
+    @Test
+    void preservedPrefixCannotContainBraces() {
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new LockKeyCodec("lk:", Collections.singletonList("order:{"), false, 0L));
+    }
+
+    @Test
+    void debugMappingDecodesEncodedKey() {
+
+        LockKeyCodec codec = new LockKeyCodec("lk:", true, 2L);
+        String encoded = codec.encode("order:1");
+        Assertions.assertEquals("order:1", codec.decode(encoded));
+        Assertions.assertNull(new LockKeyCodec("lk:", false, 0L).decode(encoded));
+    }
+
+    @Test
+    void nullNamespaceIsEmpty() {
+
+        LockKeyCodec codec = new LockKeyCodec(null, false, 0L);
+        Assertions.assertEquals("", codec.getNamespace());
+        Assertions.assertEquals(LockKeyCodec.HASH_LENGTH, codec.encode("order:1").length());
+    }
+
+}
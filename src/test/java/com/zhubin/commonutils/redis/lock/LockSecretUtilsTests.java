@@ -0,0 +1,27 @@
+package com.zhubin.commonutils.redis.lock;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 锁秘钥生成测试：定长且不重复
+ */
+class LockSecretUtilsTests {
+
+    @Test
+    void secretsAreUniqueAndFixedLength() {
+
+        Set<String> secrets = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            String secret = LockSecretUtils.nextSecret();
+            Assertions.assertEquals(LockSecretUtils.SECRET_LENGTH, secret.length());
+            Assertions.assertTrue(secrets.add(secret), secret);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.zhubin.commonutils.redis.lock;
+
+import com.zhubin.commonutils.redis.DistributeLockUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description redis批量锁测试：单机redis整批一次执行，集群按槽位分组，哈希标签使key落在同一槽位。
+ * 连接以mock模拟，只记录每次执行脚本的key
+ */
+class RedisKeyLockUtilsTests {
+
+    private static final String SECRET = "secret";
+
+    private static final long EXPIRE_MILLIS = 10_000L;
+
+    private final List<List<String>> evaluatedKeys = new ArrayList<>();
+
+    @Test
+    void standaloneLocksWholeBatchInOneScript() {
+
+        RedisKeyLockUtils lockUtils = newLockUtils(RedisConnection.class);
+        List<String> keys = Arrays.asList("stock:3", "stock:1", "order:2", "stock:1");
+        Assertions.assertTrue(lockUtils.tryLockAllStrict(keys, SECRET, EXPIRE_MILLIS));
+        // 去重并排序，一次执行
+        Assertions.assertEquals(1, evaluatedKeys.size());
+        Assertions.assertEquals(Arrays.asList("order:2", "stock:1", "stock:3"), evaluatedKeys.get(0));
+        Assertions.assertEquals(3L, lockUtils.releaseAllLuaLock(keys, SECRET));
+        Assertions.assertEquals(2, evaluatedKeys.size());
+    }
+
+    @Test
+    void clusterGroupsKeysBySlot() {
+
+        RedisKeyLockUtils lockUtils = newLockUtils(RedisClusterConnection.class);
+        List<String> keys = Arrays.asList("stock:1", "stock:2", "stock:3", "stock:4");
+        long slots = keys.stream().map(lockUtils::slotOf).distinct().count();
+        Assertions.assertTrue(slots > 1L);
+        Assertions.assertTrue(lockUtils.tryLockAllStrict(keys, SECRET, EXPIRE_MILLIS));
+        Assertions.assertEquals(slots, evaluatedKeys.size());
+        for (List<String> group : evaluatedKeys) {
+            Assertions.assertEquals(1L, group.stream().map(lockUtils::slotOf).distinct().count());
+        }
+        Assertions.assertEquals(keys.size(), evaluatedKeys.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void hashTaggedKeysShareOneSlot() {
+
+        RedisKeyLockUtils lockUtils = newLockUtils(RedisClusterConnection.class);
+        List<String> keys = Arrays.asList("stock:1", "stock:2", "account:9").stream()
+                .map(key -> DistributeLockUtil.withHashTag("order-1", key)).collect(Collectors.toList());
+        Assertions.assertEquals("{order-1}stock:1", keys.get(0));
+        Assertions.assertTrue(lockUtils.tryLockAllStrict(keys, SECRET, EXPIRE_MILLIS));
+        Assertions.assertEquals(1, evaluatedKeys.size());
+        Assertions.assertEquals(lockUtils.slotOf("order-1"), lockUtils.slotOf(keys.get(0)));
+    }
+
+    @Test
+    void withHashTagRejectsInvalidTag() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DistributeLockUtil.withHashTag("", "stock:1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DistributeLockUtil.withHashTag("a{b", "stock:1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DistributeLockUtil.withHashTag("a}b", "stock:1"));
+    }
+
+    /**
+     * @param connectionType 连接类型，集群连接时按槽位分组
+     */
+    @SuppressWarnings("unchecked")
+    private RedisKeyLockUtils newLockUtils(Class<? extends RedisConnection> connectionType) {
+
+        RedisScriptingCommands scriptingCommands = Mockito.mock(RedisScriptingCommands.class);
+        Mockito.when(scriptingCommands.eval(Mockito.any(byte[].class), Mockito.eq(ReturnType.INTEGER), Mockito.anyInt(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    int numKeys = invocation.getArgument(2);
+                    List<String> keys = new ArrayList<>(numKeys);
+                    for (int i = 0; i < numKeys; i++) {
+                        keys.add(new String((byte[]) invocation.getArgument(3 + i), StandardCharsets.UTF_8));
+                    }
+                    evaluatedKeys.add(keys);
+                    return new String((byte[]) invocation.getArgument(0), StandardCharsets.UTF_8).contains("local n")
+                            ? (long) numKeys : 1L;
+                });
+        RedisConnection connection = Mockito.mock(connectionType);
+        Mockito.when(connection.scriptingCommands()).thenReturn(scriptingCommands);
+        StringRedisTemplate redisTemplate = Mockito.spy(new StringRedisTemplate());
+        Mockito.doAnswer(invocation -> ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection))
+                .when(redisTemplate).execute(Mockito.any(RedisCallback.class));
+        RedisKeyLockUtils lockUtils = new RedisKeyLockUtils();
+        ReflectionTestUtils.setField(lockUtils, "redisTemplate", redisTemplate);
+        return lockUtils;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.zhubin.commonutils.redis.lock.impl;
+
+import com.zhubin.commonutils.redis.exception.DistributeLockUnavailableException;
+import com.zhubin.commonutils.redis.leader.LeaderElection;
+import com.zhubin.commonutils.redis.lock.LockCircuitBreaker;
+import com.zhubin.commonutils.redis.lock.RedisKeyLockUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 带熔断与降级的锁动作测试：redis不可用时仅降级前缀匹配的key，选主key不降级，熔断打开后不再访问redis
+ */
+class DegradableLockActionRedisImplTests {
+
+    private static final long EXPIRE_MILLIS = 10_000L;
+
+    private final RedisKeyLockUtils redisKeyLockUtils = Mockito.mock(RedisKeyLockUtils.class);
+
+    private DegradableLockActionRedisImpl lockAction;
+
+    @BeforeEach
+    void setUp() {
+
+        // 空前缀匹配全部key
+        lockAction = new DegradableLockActionRedisImpl(new LockCircuitBreaker(2, 60_000L), Arrays.asList("order:", ""));
+        ReflectionTestUtils.setField(lockAction, "redisKeyLockUtils", redisKeyLockUtils);
+    }
+
+    @Test
+    void usesRedisWhenAvailable() {
+
+        Mockito.when(redisKeyLockUtils.tryLockStrict("order:1", "a", EXPIRE_MILLIS)).thenReturn(true);
+        Mockito.when(redisKeyLockUtils.releaseLuaLockStrict("order:1", "a")).thenReturn(true);
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", EXPIRE_MILLIS));
+        Assertions.assertTrue(lockAction.releaseLock("order:1", "a"));
+        Assertions.assertEquals(LockCircuitBreaker.State.CLOSED, lockAction.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void degradesMatchingKeysWhenRedisFails() {
+
+        Mockito.when(redisKeyLockUtils.tryLockStrict(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong()))
+                .thenThrow(new IllegalStateException("redis timeout"));
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", EXPIRE_MILLIS));
+        Assertions.assertFalse(lockAction.tryLock("order:1", "b", EXPIRE_MILLIS));
+        // 熔断打开后不再访问redis，降级期间获取的锁在本地释放
+        Assertions.assertEquals(LockCircuitBreaker.State.OPEN, lockAction.getCircuitBreaker().getState());
+        Assertions.assertTrue(lockAction.releaseLock("order:1", "a"));
+        Mockito.verify(redisKeyLockUtils, Mockito.times(2)).tryLockStrict(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+        Mockito.verify(redisKeyLockUtils, Mockito.never()).releaseLuaLockStrict(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    void leaderKeysNeverDegrade() {
+
+        Mockito.when(redisKeyLockUtils.tryLockStrict(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong()))
+                .thenThrow(new IllegalStateException("redis timeout"));
+        String leaderKey = LeaderElection.KEY_PREFIX + "job";
+        Assertions.assertThrows(DistributeLockUnavailableException.class, () -> lockAction.tryLock(leaderKey, "a", EXPIRE_MILLIS));
+        Assertions.assertThrows(DistributeLockUnavailableException.class, () -> lockAction.tryLock(leaderKey, "b", EXPIRE_MILLIS));
+        Assertions.assertFalse(lockAction.renewLock(leaderKey, "a", EXPIRE_MILLIS));
+    }
+
+    @Test
+    void nonMatchingKeysFailFast() {
+
+        DegradableLockActionRedisImpl strict = new DegradableLockActionRedisImpl(new LockCircuitBreaker(1, 60_000L), Arrays.asList("order:"));
+        ReflectionTestUtils.setField(strict, "redisKeyLockUtils", redisKeyLockUtils);
+        Mockito.when(redisKeyLockUtils.tryLockAllStrict(Mockito.anyCollection(), Mockito.anyString(), Mockito.anyLong()))
+                .thenThrow(new IllegalStateException("redis timeout"));
+        Assertions.assertThrows(DistributeLockUnavailableException.class,
+                () -> strict.tryLockAll(Arrays.asList("order:1", "stock:1"), "a", EXPIRE_MILLIS));
+        Assertions.assertTrue(strict.tryLockAll(Arrays.asList("order:1", "order:2"), "a", EXPIRE_MILLIS));
+        Assertions.assertThrows(DistributeLockUnavailableException.class, () -> strict.tryLock("stock:1", "a", EXPIRE_MILLIS));
+    }
+
+}
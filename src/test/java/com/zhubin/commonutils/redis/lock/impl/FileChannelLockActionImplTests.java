@@ -0,0 +1,173 @@
+package com.zhubin.commonutils.redis.lock.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 文件锁表测试：两个进程打开同一文件时互斥、过期后可被其他进程获取、秘钥不一致时不能释放与续约、同一进程按路径共享实例。
+ * 另一个进程以子JVM运行 LockProcess，按参数依次执行锁操作并输出结果
+ */
+class FileChannelLockActionImplTests {
+
+    private static final int SLOTS = 1024;
+
+    private static final int SEGMENTS = 16;
+
+    @TempDir
+    Path tempDir;
+
+    private String path;
+
+    private FileChannelLockActionImpl lockAction;
+
+    @BeforeEach
+    void setUp() throws IOException {
+
+        path = tempDir.resolve("locks.table").toString();
+        lockAction = FileChannelLockActionImpl.open(path, SLOTS, SEGMENTS);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+
+        lockAction.destroy();
+    }
+
+    @Test
+    void lockIsExclusiveAcrossProcesses() throws Exception {
+
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", 60_000L));
+        Assertions.assertEquals(Arrays.asList(false, true), runOtherProcess("lock", "order:1", "b", "60000", "lock", "order:2", "b", "60000"));
+        Assertions.assertFalse(lockAction.tryLock("order:2", "a", 60_000L));
+        Assertions.assertTrue(lockAction.releaseLock("order:1", "a"));
+        Assertions.assertEquals(Arrays.asList(true, true), runOtherProcess("lock", "order:1", "b", "60000", "release", "order:1", "b", "0"));
+    }
+
+    @Test
+    void expiredLockIsTakenOverByOtherProcess() throws Exception {
+
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", 100L));
+        TimeUnit.MILLISECONDS.sleep(150L);
+        Assertions.assertEquals(Arrays.asList(true), runOtherProcess("lock", "order:1", "b", "60000"));
+        // 过期后原持有者不能续约或释放其他进程的锁
+        Assertions.assertFalse(lockAction.renewLock("order:1", "a", 60_000L));
+        Assertions.assertFalse(lockAction.releaseLock("order:1", "a"));
+        Assertions.assertFalse(lockAction.tryLock("order:1", "a", 60_000L));
+    }
+
+    @Test
+    void secretMismatchIsRejected() throws Exception {
+
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", 60_000L));
+        Assertions.assertEquals(Arrays.asList(false, false, false),
+                runOtherProcess("release", "order:1", "b", "0", "renew", "order:1", "b", "60000", "lock", "order:1", "b", "60000"));
+        Assertions.assertFalse(lockAction.releaseLock("order:1", "b"));
+        Assertions.assertTrue(lockAction.renewLock("order:1", "a", 60_000L));
+        Assertions.assertTrue(lockAction.releaseLock("order:1", "a"));
+    }
+
+    @Test
+    void samePathSharesInstanceInProcess() throws IOException {
+
+        FileChannelLockActionImpl shared = FileChannelLockActionImpl.open(path, SLOTS, SEGMENTS);
+        try {
+            Assertions.assertSame(lockAction, shared);
+            Assertions.assertThrows(IllegalStateException.class, () -> FileChannelLockActionImpl.open(path, SLOTS * 2, SEGMENTS));
+        } finally {
+            shared.destroy();
+        }
+        // 仍有引用时不关闭
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", 60_000L));
+    }
+
+    /**
+     * 在子JVM中打开同一锁表，依次执行操作
+     * @param operations 每4个参数为一个操作：lock|release|renew、key、秘钥、过期时间
+     * @return 各操作的结果
+     */
+    private List<Boolean> runOtherProcess(String... operations) throws Exception {
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LockProcess.class.getName());
+        command.add(path);
+        command.addAll(Arrays.asList(operations));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = read(process.getInputStream());
+        Assertions.assertTrue(process.waitFor(30L, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, process.exitValue(), output);
+        String[] lines = output.trim().split("\\R");
+        List<Boolean> results = new ArrayList<>();
+        for (String line : lines[lines.length - 1].split(",")) {
+            results.add(Boolean.valueOf(line));
+        }
+        return results;
+    }
+
+    private static String read(InputStream in) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int n; (n = in.read(buffer)) > 0; ) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 子JVM入口：打开锁表后依次执行操作，最后一行输出逗号分隔的结果
+     */
+    static final class LockProcess {
+
+        public static void main(String[] args) throws IOException {
+
+            FileChannelLockActionImpl lockAction = FileChannelLockActionImpl.open(args[0], SLOTS, SEGMENTS);
+            try {
+                StringBuilder results = new StringBuilder();
+                for (int i = 1; i + 3 < args.length; i += 4) {
+                    String key = args[i + 1];
+                    String secret = args[i + 2];
+                    long expireTime = Long.parseLong(args[i + 3]);
+                    boolean result;
+                    switch (args[i]) {
+                        case "lock":
+                            result = lockAction.tryLock(key, secret, expireTime);
+                            break;
+                        case "release":
+                            result = lockAction.releaseLock(key, secret);
+                            break;
+                        case "renew":
+                            result = lockAction.renewLock(key, secret, expireTime);
+                            break;
+                        default:
+                            throw new IllegalArgumentException(args[i]);
+                    }
+                    results.append(results.length() == 0 ? "" : ",").append(result);
+                }
+                System.out.println(results);
+            } finally {
+                lockAction.destroy();
+            }
+        }
+
+    }
+
+}
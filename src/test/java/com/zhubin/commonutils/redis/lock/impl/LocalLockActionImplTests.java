@@ -0,0 +1,71 @@
+package com.zhubin.commonutils.redis.lock.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author zhubin
+ * @date 2026/10/19
+ * @description 进程内锁动作测试：互斥、秘钥校验、过期视为不存在、续约与批量获取
+ */
+class LocalLockActionImplTests {
+
+    private static final long EXPIRE_MILLIS = 60_000L;
+
+    @Test
+    void lockIsExclusiveUntilReleased() {
+
+        LocalLockActionImpl lockAction = new LocalLockActionImpl();
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", EXPIRE_MILLIS));
+        Assertions.assertFalse(lockAction.tryLock("order:1", "b", EXPIRE_MILLIS));
+        Assertions.assertTrue(lockAction.tryLock("order:2", "b", EXPIRE_MILLIS));
+        Assertions.assertTrue(lockAction.releaseLock("order:1", "a"));
+        Assertions.assertTrue(lockAction.tryLock("order:1", "b", EXPIRE_MILLIS));
+    }
+
+    @Test
+    void releaseAndRenewCheckSecret() {
+
+        LocalLockActionImpl lockAction = new LocalLockActionImpl();
+        lockAction.tryLock("order:1", "a", EXPIRE_MILLIS);
+        Assertions.assertFalse(lockAction.releaseLock("order:1", "b"));
+        Assertions.assertFalse(lockAction.renewLock("order:1", "b", EXPIRE_MILLIS));
+        Assertions.assertTrue(lockAction.isHeldBy("order:1", "a"));
+        Assertions.assertTrue(lockAction.renewLock("order:1", "a", EXPIRE_MILLIS));
+        Assertions.assertTrue(lockAction.releaseLock("order:1", "a"));
+        Assertions.assertFalse(lockAction.releaseLock("order:1", "a"));
+        Assertions.assertFalse(lockAction.isHeldBy("order:1", "a"));
+    }
+
+    @Test
+    void expiredLockIsTreatedAsAbsent() throws InterruptedException {
+
+        LocalLockActionImpl lockAction = new LocalLockActionImpl();
+        Assertions.assertTrue(lockAction.tryLock("order:1", "a", 20L));
+        TimeUnit.MILLISECONDS.sleep(40L);
+        Assertions.assertFalse(lockAction.isHeldBy("order:1", "a"));
+        Assertions.assertFalse(lockAction.renewLock("order:1", "a", EXPIRE_MILLIS));
+        Assertions.assertFalse(lockAction.releaseLock("order:1", "a"));
+        Assertions.assertTrue(lockAction.tryLock("order:1", "b", EXPIRE_MILLIS));
+        Assertions.assertTrue(lockAction.isHeldBy("order:1", "b"));
+    }
+
+    @Test
+    void tryLockAllIsAllOrNothing() {
+
+        LocalLockActionImpl lockAction = new LocalLockActionImpl();
+        lockAction.tryLock("order:2", "other", EXPIRE_MILLIS);
+        Assertions.assertFalse(lockAction.tryLockAll(Arrays.asList("order:3", "order:2", "order:1"), "a", EXPIRE_MILLIS));
+        Assertions.assertFalse(lockAction.isHeldBy("order:1", "a"));
+        Assertions.assertFalse(lockAction.isHeldBy("order:3", "a"));
+        lockAction.releaseLock("order:2", "other");
+        Assertions.assertTrue(lockAction.tryLockAll(Arrays.asList("order:3", "order:2", "order:1"), "a", EXPIRE_MILLIS));
+        lockAction.releaseAll(Arrays.asList("order:1", "order:2", "order:3"), "a");
+        Assertions.assertTrue(lockAction.tryLockAll(Collections.singletonList("order:2"), "b", EXPIRE_MILLIS));
+    }
+
+}